@@ -0,0 +1,133 @@
+package com.lwb.easy.excel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试的数据集
+ * </p>
+ * 按数据形态、行数、宽度、嵌套深度和日期占比生成合成数据及对应的ExcelConfig
+ */
+final class BenchmarkData {
+
+    /**
+     * 数据形态
+     */
+    enum Shape {
+        /**
+         * 普通对象，字段通过FieldAccessor取值
+         */
+        BEAN,
+        /**
+         * Map，key为字段路径，value为字段的原始值
+         */
+        MAP,
+        /**
+         * Object[]，按下标与字段对应
+         */
+        ARRAY
+    }
+
+    private static final long BASE_TIME = 1566230400000L;
+    private static final String CHILD = "child.";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 导出的字段，日期字段在前，其余字段字符串、数字交替
+     * @param width       列数，最大36
+     * @param dateDensity 日期列的占比，0到1
+     * @param depth       嵌套深度，1表示不嵌套
+     * @return 字段路径
+     */
+    static List<String> fields(int width, double dateDensity, int depth) {
+        int max = SyntheticRow.FIELDS_PER_TYPE;
+        int dates = Math.min(max, (int) Math.round(width * dateDensity));
+        if (width > max * 3 || width - dates > max * 2) {
+            throw new IllegalArgumentException("width too large: " + width);
+        }
+        String prefix = String.join("", Collections.nCopies(depth - 1, CHILD));
+        List<String> fields = new ArrayList<>(width);
+        for (int i = 0; i < dates; i++) {
+            fields.add(prefix + "d" + i);
+        }
+        for (int i = 0; fields.size() < width; i++) {
+            fields.add(prefix + (i % 2 == 0 ? "s" : "n") + (i / 2));
+        }
+        return fields;
+    }
+
+    /**
+     * 单行表头的导出配置
+     */
+    static ExcelConfig config(List<String> fields) {
+        List<ExcelConfig.Header> headers = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            ExcelConfig.Header header = new ExcelConfig.Header();
+            header.setName(field);
+            headers.add(header);
+        }
+        ExcelConfig config = new ExcelConfig();
+        config.setFileName("benchmark");
+        config.setHeaders(Collections.singletonList(headers));
+        config.setFields(fields);
+        config.validate();
+        return config;
+    }
+
+    /**
+     * 生成数据
+     * @param shape  数据形态
+     * @param rows   行数
+     * @param fields 导出的字段
+     * @param depth  嵌套深度
+     * @return 数据
+     */
+    static List<Object> rows(Shape shape, int rows, List<String> fields, int depth) {
+        List<Object> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            SyntheticRow row = bean(i, depth);
+            data.add(shape == Shape.BEAN ? row : shape == Shape.MAP ? toMap(row, fields) : toArray(row, fields));
+        }
+        return data;
+    }
+
+    /**
+     * 生成一行数据，所有字段都填充在最末级对象上
+     */
+    static SyntheticRow bean(int index, int depth) {
+        SyntheticRow root = new SyntheticRow();
+        SyntheticRow leaf = root;
+        for (int i = 1; i < depth; i++) {
+            leaf.child = new SyntheticRow();
+            leaf = leaf.child;
+        }
+        for (int i = 0; i < SyntheticRow.FIELDS_PER_TYPE; i++) {
+            FieldAccessor.of(SyntheticRow.class, "s" + i).set(leaf, "row" + index + "-" + i);
+            FieldAccessor.of(SyntheticRow.class, "n" + i).set(leaf, index * 31L + i);
+            FieldAccessor.of(SyntheticRow.class, "d" + i).set(leaf, new Date(BASE_TIME + index * 60_000L + i));
+        }
+        return root;
+    }
+
+    private static Map<String, Object> toMap(SyntheticRow row, List<String> fields) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String field : fields) {
+            map.put(field, FieldAccessor.of(SyntheticRow.class, field).get(row));
+        }
+        return map;
+    }
+
+    private static Object[] toArray(SyntheticRow row, List<String> fields) {
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = FieldAccessor.of(SyntheticRow.class, fields.get(i)).get(row);
+        }
+        return values;
+    }
+}
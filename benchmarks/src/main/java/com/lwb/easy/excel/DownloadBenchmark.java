@@ -0,0 +1,74 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.enums.ExportFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下载基准：已生成文件写入响应流的开销
+ * </p>
+ * stream为输入流复制（DownloadUtil#download(request, response, fileName, inStream)），
+ * file为FileChannel#transferTo，响应内容写入丢弃内容的输出流
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownloadBenchmark {
+
+    @Param({"10000", "100000"})
+    int rows;
+
+    File file;
+    HttpServletRequest request;
+
+    @Setup
+    public void setup() throws Exception {
+        List<String> fields = BenchmarkData.fields(12, 0.25, 1);
+        ExcelConfig config = BenchmarkData.config(fields);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelUtil.write(BenchmarkData.rows(BenchmarkData.Shape.BEAN, rows, fields, 1), config, out);
+        file = File.createTempFile("benchmark", ".xlsx");
+        Files.write(file.toPath(), out.toByteArray());
+        request = Servlets.request();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public long stream() throws Exception {
+        NullOutputStream out = new NullOutputStream();
+        DownloadUtil.download(request, Servlets.response(out), "benchmark", new FileInputStream(file));
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long file() throws Exception {
+        NullOutputStream out = new NullOutputStream();
+        DownloadUtil.download(request, Servlets.response(out), "benchmark", ExportFormat.XLSX, file);
+        return out.getCount();
+    }
+}
@@ -0,0 +1,73 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.enums.ExcelEngine;
+import com.lwb.easy.excel.enums.ExportFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端导出基准：生成文件并写入丢弃内容的输出流，不包含磁盘和网络开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExportBenchmark {
+
+    /**
+     * 写入方式：POI、NATIVE为xlsx的两种引擎，CSV为csv格式
+     */
+    @Param({"POI", "NATIVE", "CSV"})
+    String writer;
+
+    @Param({"BEAN", "MAP", "ARRAY"})
+    BenchmarkData.Shape shape;
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    @Param({"6", "24"})
+    int width;
+
+    @Param({"1", "3"})
+    int depth;
+
+    @Param({"0", "0.5"})
+    double dateDensity;
+
+    ExcelConfig config;
+    List<Object> data;
+
+    @Setup
+    public void setup() {
+        List<String> fields = BenchmarkData.fields(width, dateDensity, depth);
+        config = BenchmarkData.config(fields);
+        if ("CSV".equals(writer)) {
+            config.setFormat(ExportFormat.CSV);
+        } else {
+            config.setEngine(ExcelEngine.valueOf(writer));
+        }
+        data = BenchmarkData.rows(shape, rows, fields, depth);
+    }
+
+    @Benchmark
+    public long export() {
+        NullOutputStream out = new NullOutputStream();
+        ExcelUtil.write(data, config, out);
+        return out.getCount();
+    }
+}
@@ -0,0 +1,90 @@
+package com.lwb.easy.excel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字段取值基准：反射取值（ExcelHelper#getFieldValue）、编译后的FieldAccessor和Map取值
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldAccessBenchmark {
+
+    private static final int ROWS = 1024;
+
+    @Param({"1", "4"})
+    int depth;
+
+    @Param({"12"})
+    int width;
+
+    List<String> fields;
+    FieldAccessor[] accessors;
+    List<Object> beans;
+    List<Object> maps;
+    List<Object> arrays;
+
+    @Setup
+    public void setup() {
+        fields = BenchmarkData.fields(width, 0, depth);
+        accessors = FieldAccessor.of(SyntheticRow.class, fields);
+        beans = BenchmarkData.rows(BenchmarkData.Shape.BEAN, ROWS, fields, depth);
+        maps = BenchmarkData.rows(BenchmarkData.Shape.MAP, ROWS, fields, depth);
+        arrays = BenchmarkData.rows(BenchmarkData.Shape.ARRAY, ROWS, fields, depth);
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) throws Exception {
+        for (Object row : beans) {
+            for (String field : fields) {
+                blackhole.consume(ExcelHelper.getFieldValue(row, field));
+            }
+        }
+    }
+
+    @Benchmark
+    public void accessor(Blackhole blackhole) {
+        for (Object row : beans) {
+            for (FieldAccessor accessor : accessors) {
+                blackhole.consume(accessor.get(row));
+            }
+        }
+    }
+
+    @Benchmark
+    public void map(Blackhole blackhole) {
+        for (Object row : maps) {
+            Map<?, ?> map = (Map<?, ?>) row;
+            for (String field : fields) {
+                blackhole.consume(map.get(field));
+            }
+        }
+    }
+
+    @Benchmark
+    public void array(Blackhole blackhole) {
+        for (Object row : arrays) {
+            for (Object value : (Object[]) row) {
+                blackhole.consume(value);
+            }
+        }
+    }
+}
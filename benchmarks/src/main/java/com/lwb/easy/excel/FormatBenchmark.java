@@ -0,0 +1,102 @@
+package com.lwb.easy.excel;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 格式化基准：字段值格式化成文本（ExcelHelper#formatFieldValue），以及按类型写入单元格（CellWriter）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatBenchmark {
+
+    private static final int ROWS = 1024;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    @Param({"12"})
+    int width;
+
+    @Param({"0", "0.5", "1"})
+    double dateDensity;
+
+    FieldAccessor[] accessors;
+    Object[][] values;
+    SXSSFWorkbook book;
+    Sheet sheet;
+    CellWriter cellWriter;
+    int rowIndex;
+
+    @Setup
+    public void setup() {
+        List<String> fields = BenchmarkData.fields(width, dateDensity, 1);
+        accessors = FieldAccessor.of(SyntheticRow.class, fields);
+        List<Object> rows = BenchmarkData.rows(BenchmarkData.Shape.BEAN, ROWS, fields, 1);
+        values = new Object[ROWS][accessors.length];
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < accessors.length; j++) {
+                values[i][j] = accessors[j].get(rows.get(i));
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createWorkbook() {
+        book = new SXSSFWorkbook();
+        sheet = book.createSheet();
+        cellWriter = new CellWriter(book, accessors.length);
+        rowIndex = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void disposeWorkbook() throws Exception {
+        book.dispose();
+        book.close();
+    }
+
+    @Benchmark
+    public void formatText(Blackhole blackhole) {
+        for (Object[] row : values) {
+            for (int j = 0; j < accessors.length; j++) {
+                blackhole.consume(ExcelHelper.formatFieldValue(row[j], accessors[j].getFormat()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeCells() {
+        for (Object[] row : values) {
+            // xlsx单个sheet的行数有上限，写满后换一个sheet
+            if (rowIndex == MAX_ROWS) {
+                sheet = book.createSheet();
+                rowIndex = 0;
+            }
+            Row excelRow = sheet.createRow(rowIndex++);
+            for (int j = 0; j < accessors.length; j++) {
+                cellWriter.write(excelRow, j, row[j], accessors[j].getFormat());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.lwb.easy.excel;
+
+import java.io.OutputStream;
+
+/**
+ * 丢弃写入内容的输出流，只记录写入的字节数，用于排除磁盘和网络的影响
+ */
+class NullOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+
+    long getCount() {
+        return count;
+    }
+}
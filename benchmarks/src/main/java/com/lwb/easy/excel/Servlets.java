@@ -0,0 +1,72 @@
+package com.lwb.easy.excel;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+
+import static com.lwb.easy.excel.constant.Headers.USER_AGENT;
+
+/**
+ * 下载基准使用的请求、响应，响应内容写入指定的输出流
+ */
+final class Servlets {
+
+    private Servlets() {
+    }
+
+    static HttpServletRequest request() {
+        return (HttpServletRequest) Proxy.newProxyInstance(
+            Servlets.class.getClassLoader(),
+            new Class<?>[]{HttpServletRequest.class},
+            (proxy, method, args) -> {
+                if ("getHeader".equals(method.getName()) && USER_AGENT.equals(args[0])) {
+                    return "Mozilla/5.0";
+                }
+                return defaultValue(method.getReturnType());
+            });
+    }
+
+    static HttpServletResponse response(OutputStream body) {
+        ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                body.write(b, off, len);
+            }
+        };
+        return (HttpServletResponse) Proxy.newProxyInstance(
+            Servlets.class.getClassLoader(),
+            new Class<?>[]{HttpServletResponse.class},
+            (proxy, method, args) -> "getOutputStream".equals(method.getName()) ? out : defaultValue(method.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lwb.easy.excel;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * 基准测试的数据行
+ * </p>
+ * 字符串、数字、日期字段各12个，按宽度和日期占比选取导出的字段；
+ * child用于构造嵌套路径（例如：child.child.s0），数据只填充在最末级
+ */
+@Getter
+@Setter
+public class SyntheticRow {
+
+    static final int FIELDS_PER_TYPE = 12;
+
+    SyntheticRow child;
+    String s0;
+    String s1;
+    String s2;
+    String s3;
+    String s4;
+    String s5;
+    String s6;
+    String s7;
+    String s8;
+    String s9;
+    String s10;
+    String s11;
+
+    Long n0;
+    Long n1;
+    Long n2;
+    Long n3;
+    Long n4;
+    Long n5;
+    Long n6;
+    Long n7;
+    Long n8;
+    Long n9;
+    Long n10;
+    Long n11;
+
+    @JsonFormat(pattern = "yyyy/MM/dd HH:mm")
+    Date d0;
+    @JsonFormat(pattern = "yyyy/MM/dd HH:mm")
+    Date d1;
+    @JsonFormat(pattern = "yyyy/MM/dd HH:mm")
+    Date d2;
+    @JsonFormat(pattern = "yyyy/MM/dd HH:mm")
+    Date d3;
+    @JsonFormat(pattern = "yyyy/MM/dd HH:mm")
+    Date d4;
+    @JsonFormat(pattern = "yyyy/MM/dd HH:mm")
+    Date d5;
+    Date d6;
+    Date d7;
+    Date d8;
+    Date d9;
+    Date d10;
+    Date d11;
+}
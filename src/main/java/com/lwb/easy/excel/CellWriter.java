@@ -0,0 +1,203 @@
+package com.lwb.easy.excel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.lwb.easy.excel.constant.Constant.*;
+
+/**
+ * 单元格写入器
+ * </p>
+ * 按值的类型写入数字、布尔、日期等原生单元格类型，不再全部转换成字符串。
+ * 数字和日期的样式按列创建一次，同一个excel内复用
+ */
+class CellWriter {
+
+    /**
+     * excel能精确表示的最大整数（15位有效数字），超过的数字按字符串写入，避免精度丢失
+     */
+    private static final long MAX_EXACT_NUMBER = 999_999_999_999_999L;
+
+    /**
+     * excel日期序列号的起始日期（1900日期系统，1900-03-01之后的日期）
+     */
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+    private static final LocalDate EXCEL_MIN_DATE = LocalDate.of(1900, 3, 1);
+    private static final double NANOS_PER_DAY = 86_400_000_000_000D;
+
+    private final Workbook book;
+    /**
+     * 按excel数据格式缓存的样式，避免重复创建；并发写入多个sheet时由多个写入器共享
+     */
+    private final Map<String, CellStyle> styles;
+    /**
+     * 每列的日期样式
+     */
+    private final CellStyle[] dateStyles;
+    /**
+     * 每列的数字样式，没有设置格式的列为null
+     */
+    private final CellStyle[] numberStyles;
+    /**
+     * 每列的日期、数字样式对应的字段格式，为null表示未解析；
+     * 字段按实际类型获取时同一列的格式可能不同，格式变化时重新获取样式
+     */
+    private final FieldFormat[] dateFormats;
+    private final FieldFormat[] numberFormats;
+
+    CellWriter(Workbook book, int columns) {
+        this(book, columns, new HashMap<>());
+    }
+
+    /**
+     * @param styles 共享的样式缓存，样式创建时会对其加锁
+     */
+    CellWriter(Workbook book, int columns, Map<String, CellStyle> styles) {
+        this.book = book;
+        this.styles = styles;
+        this.dateStyles = new CellStyle[columns];
+        this.numberStyles = new CellStyle[columns];
+        this.dateFormats = new FieldFormat[columns];
+        this.numberFormats = new FieldFormat[columns];
+    }
+
+    /**
+     * 写入单元格
+     * @param row      所属行
+     * @param column   列下标
+     * @param value    值，为null时不创建单元格
+     * @param format   字段格式
+     */
+    void write(Row row, int column, Object value, FieldFormat format) {
+        if (value == null) {
+            return;
+        }
+        Cell cell = row.createCell(column);
+        if (value instanceof String) {
+            cell.setCellValue((String) value);
+        } else if (value instanceof Number) {
+            writeNumber(cell, column, (Number) value, format);
+        } else if (value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        } else if (value instanceof Date) {
+            // 按系统时区转换，与POI写入Date的规则一致；java.sql.Date不支持toInstant
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(((Date) value).getTime()), ZoneId.systemDefault());
+            writeDate(cell, column, dateTime.toLocalDate(), dateTime.toLocalTime(), format, YYYY_MM_DD_HH_MM_SS);
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            writeDate(cell, column, dateTime.toLocalDate(), dateTime.toLocalTime(), format, YYYY_MM_DD_HH_MM_SS);
+        } else if (value instanceof LocalDate) {
+            writeDate(cell, column, (LocalDate) value, LocalTime.MIDNIGHT, format, YYYY_MM_DD);
+        } else if (value instanceof LocalTime) {
+            cell.setCellValue(toExcelTime((LocalTime) value));
+            cell.setCellStyle(dateStyle(column, format, HH_MM_SS));
+        } else {
+            cell.setCellValue(String.valueOf(value));
+        }
+    }
+
+    /**
+     * 写入数字，超出excel精度的整数按字符串写入
+     */
+    private void writeNumber(Cell cell, int column, Number number, FieldFormat format) {
+        if (!isExact(number)) {
+            cell.setCellValue(number.toString());
+            return;
+        }
+        cell.setCellValue(number.doubleValue());
+        if (numberFormats[column] != format) {
+            String pattern = format.getPattern();
+            numberStyles[column] = pattern == null ? null : style(pattern);
+            numberFormats[column] = format;
+        }
+        if (numberStyles[column] != null) {
+            cell.setCellStyle(numberStyles[column]);
+        }
+    }
+
+    /**
+     * 写入日期，转换成excel日期序列号
+     */
+    private void writeDate(Cell cell, int column, LocalDate date, LocalTime time, FieldFormat format, String defaultPattern) {
+        // excel1900日期系统中1900-03-01之前的日期有偏差，按字符串写入
+        if (!isExcelDate(date)) {
+            cell.setCellValue(date.atTime(time).toString());
+            return;
+        }
+        cell.setCellValue(toExcelDate(date, time));
+        cell.setCellStyle(dateStyle(column, format, defaultPattern));
+    }
+
+    /**
+     * 获取列的日期样式，首次使用或格式变化时获取
+     */
+    private CellStyle dateStyle(int column, FieldFormat format, String defaultPattern) {
+        CellStyle style = dateStyles[column];
+        if (style == null || dateFormats[column] != format) {
+            String pattern = format.getPattern();
+            style = style(ExcelStyle.toExcelDateFormat(pattern == null ? defaultPattern : pattern));
+            dateStyles[column] = style;
+            dateFormats[column] = format;
+        }
+        return style;
+    }
+
+    private CellStyle style(String format) {
+        // 每列只在首次写入或格式变化时获取样式，加锁的开销可以忽略
+        synchronized (styles) {
+            return styles.computeIfAbsent(format, f -> ExcelStyle.dataFormatStyle(book, f));
+        }
+    }
+
+    /**
+     * 日期能否用excel日期序列号表示
+     */
+    static boolean isExcelDate(LocalDate date) {
+        return !date.isBefore(EXCEL_MIN_DATE);
+    }
+
+    /**
+     * 转换成excel日期序列号
+     */
+    static double toExcelDate(LocalDate date, LocalTime time) {
+        return ChronoUnit.DAYS.between(EXCEL_EPOCH, date) + toExcelTime(time);
+    }
+
+    /**
+     * 转换成excel时间（一天中的比例）
+     */
+    static double toExcelTime(LocalTime time) {
+        return time.toNanoOfDay() / NANOS_PER_DAY;
+    }
+
+    /**
+     * 数字能否被excel精确表示
+     */
+    static boolean isExact(Number number) {
+        if (number instanceof Long) {
+            long value = (Long) number;
+            return value <= MAX_EXACT_NUMBER && value >= -MAX_EXACT_NUMBER;
+        }
+        if (number instanceof BigInteger) {
+            return ((BigInteger) number).bitLength() < 50;
+        }
+        if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).precision() <= 15;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,199 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.enums.ColumnWidth;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.List;
+
+/**
+ * 列宽估算器
+ * </p>
+ * 按表头和数据的显示宽度记录每列的最大宽度，中日韩文字等全角字符按两个字符宽度计算。
+ * 日期的显示宽度由格式决定，每列格式不变时只格式化一次。只保存每列的宽度，不是线程安全的，
+ * 并发写入时每个线程使用各自的估算器，写入完成后合并
+ */
+final class ColumnWidths {
+
+    /**
+     * 默认采样的数据行数
+     */
+    static final int DEFAULT_SAMPLE_ROWS = 100;
+
+    /**
+     * excel允许的最大列宽（字符数）
+     */
+    private static final int MAX_WIDTH = 255;
+    private static final int MIN_WIDTH = 4;
+    /**
+     * 单元格两侧的留白（字符数）
+     */
+    private static final int PADDING = 2;
+
+    private final boolean sampleAll;
+    private final int sampleRows;
+    /**
+     * 数据列数，即字段数
+     */
+    private final int fields;
+    /**
+     * 每列的最大显示宽度（字符数）
+     */
+    private final int[] widths;
+    /**
+     * 每列日期的显示宽度，0表示未计算
+     */
+    private final int[] dateWidths;
+    /**
+     * 每列计算日期宽度时使用的格式，运行时类型不同的嵌套字段每行的格式可能不同
+     */
+    private final FieldFormat[] dateFormats;
+    private long rows;
+
+    private ColumnWidths(boolean sampleAll, int sampleRows, int fields, int columns) {
+        this.sampleAll = sampleAll;
+        this.sampleRows = sampleRows;
+        this.fields = fields;
+        this.widths = new int[columns];
+        this.dateWidths = new int[columns];
+        this.dateFormats = new FieldFormat[columns];
+    }
+
+    /**
+     * 创建列宽估算器，并按表头初始化列宽
+     * </p>
+     * 跨多列合并的表头不计入单列的宽度
+     * @param config    excel配置
+     * @param plan      导出计划
+     * @param sampleAll 是否按所有数据行估算，NATIVE引擎只能采样
+     * @return 估算器，未开启列宽计算时为null
+     */
+    static ColumnWidths of(ExcelConfig config, ExportPlan plan, boolean sampleAll) {
+        ColumnWidth strategy = config.getColumnWidth();
+        if (strategy == null || strategy == ColumnWidth.NONE) {
+            return null;
+        }
+        ColumnWidths columnWidths = new ColumnWidths(
+            sampleAll && strategy == ColumnWidth.MAX,
+            config.getColumnWidthSampleRows() == null ? DEFAULT_SAMPLE_ROWS : config.getColumnWidthSampleRows(),
+            plan.getFields().size(),
+            plan.getColumns()
+        );
+        for (List<ExportPlan.HeaderCell> row : plan.getHeaderCells()) {
+            for (ExportPlan.HeaderCell cell : row) {
+                boolean multiColumn = cell.getRegion() != null
+                    && cell.getRegion().getFirstColumn() != cell.getRegion().getLastColumn();
+                if (!multiColumn && StringUtils.isNotEmpty(cell.getName())) {
+                    columnWidths.update(cell.getColumn(), displayWidth(cell.getName()));
+                }
+            }
+        }
+        return columnWidths;
+    }
+
+    /**
+     * 是否还需要采样，写入数据行后调用sample前判断，采样完成后没有额外开销
+     */
+    boolean isSampling() {
+        return sampleAll || rows < sampleRows;
+    }
+
+    /**
+     * 记录一行数据的显示宽度
+     * @param adapter 行数据适配器
+     * @param item    行数据，不为null
+     */
+    void sample(RowAdapter adapter, Object item) {
+        for (int i = 0; i < fields; i++) {
+            Object value = adapter.get(item, i);
+            if (value != null) {
+                update(i, valueWidth(i, value, adapter.getFormat(item, i)));
+            }
+        }
+        rows++;
+    }
+
+    /**
+     * 合并其他估算器的结果
+     */
+    void merge(ColumnWidths other) {
+        for (int i = 0; i < widths.length; i++) {
+            update(i, other.widths[i]);
+        }
+        rows += other.rows;
+    }
+
+    /**
+     * 列宽，单位为1/256个字符宽度，与Sheet#setColumnWidth一致
+     * @param column 列下标
+     * @return 列宽，没有表头和数据的列为-1
+     */
+    int getWidth(int column) {
+        int width = widths[column];
+        if (width == 0) {
+            return -1;
+        }
+        return Math.min(Math.max(width, MIN_WIDTH) + PADDING, MAX_WIDTH) * 256;
+    }
+
+    int getColumns() {
+        return widths.length;
+    }
+
+    /**
+     * 设置sheet的列宽
+     */
+    void apply(Sheet sheet) {
+        for (int i = 0; i < widths.length; i++) {
+            int width = getWidth(i);
+            if (width > 0) {
+                sheet.setColumnWidth(i, width);
+            }
+        }
+    }
+
+    /**
+     * 文本的显示宽度，全角字符按2计算
+     */
+    static int displayWidth(CharSequence text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += isWide(text.charAt(i)) ? 2 : 1;
+        }
+        return width;
+    }
+
+    private int valueWidth(int column, Object value, FieldFormat format) {
+        if (value instanceof String) {
+            return displayWidth((String) value);
+        }
+        if (!ExcelHelper.isDate(value)) {
+            return String.valueOf(value).length();
+        }
+        // 同一列日期的显示宽度由格式决定，格式不变时只格式化一次
+        if (dateWidths[column] == 0 || dateFormats[column] != format) {
+            dateWidths[column] = displayWidth(ExcelHelper.formatFieldValue(value, format));
+            dateFormats[column] = format;
+        }
+        return dateWidths[column];
+    }
+
+    private void update(int column, int width) {
+        if (width > widths[column]) {
+            widths[column] = width;
+        }
+    }
+
+    /**
+     * 是否是全角字符：中日韩文字、全角符号、韩文音节等
+     */
+    private static boolean isWide(char c) {
+        return (c >= '\u1100' && c <= '\u115F')
+            || (c >= '\u2E80' && c <= '\uA4CF')
+            || (c >= '\uAC00' && c <= '\uD7A3')
+            || (c >= '\uF900' && c <= '\uFAFF')
+            || (c >= '\uFE30' && c <= '\uFE4F')
+            || (c >= '\uFF00' && c <= '\uFF60')
+            || (c >= '\uFFE0' && c <= '\uFFE6');
+    }
+}
@@ -0,0 +1,179 @@
+package com.lwb.easy.excel;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * csv、tsv文件写入器
+ * </p>
+ * 与excel导出共用ExcelConfig的表头、字段配置和字段值格式化，多行表头合并成一行。
+ * 直接按行写入缓冲的字符流，没有excel的xml序列化和zip压缩开销
+ */
+class CsvWriter {
+
+    private static final char QUOTE = '"';
+    private static final String LINE_SEPARATOR = "\r\n";
+    private static final char BOM = '\uFEFF';
+    /**
+     * 多行表头合并时的连接符
+     */
+    private static final String HEADER_JOINER = "-";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExcelConfig config;
+    private final ExportPlan plan;
+    private final char separator;
+    /**
+     * 已写入的数据行数
+     */
+    private long rows;
+
+    CsvWriter(ExcelConfig config) {
+        this.config = config;
+        this.plan = ExcelConfigRegistry.getPlan(config);
+        this.separator = config.getExportFormat().getSeparator();
+    }
+
+    /**
+     * 写入表头和数据
+     * @param data 数据迭代器，可为null
+     * @param out  输出流，由调用方负责关闭
+     */
+    void write(Iterator<?> data, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (!Boolean.FALSE.equals(config.getBom())) {
+            writer.write(BOM);
+        }
+        writeHeader(writer);
+        if (data != null) {
+            writeRows(writer, data);
+        }
+        writer.flush();
+    }
+
+    /**
+     * 写入表头，多行表头按列合并成一行，例如：信息-角色
+     */
+    private void writeHeader(Writer writer) throws IOException {
+        String[] names = flattenHeaders();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            writeValue(writer, names[i]);
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeRows(Writer writer, Iterator<?> data) throws IOException {
+        int columns = plan.getFields().size();
+        Class<?> type = null;
+        RowAdapter adapter = null;
+        while (data.hasNext()) {
+            Object item = data.next();
+            if (item != null) {
+                // 数据类型变化时重新获取行数据适配器
+                if (item.getClass() != type) {
+                    type = item.getClass();
+                    adapter = plan.adapter(type);
+                }
+                for (int i = 0; i < columns; i++) {
+                    if (i > 0) {
+                        writer.write(separator);
+                    }
+                    writeValue(writer, ExcelHelper.formatFieldValue(adapter.get(item, i), adapter.getFormat(item, i)));
+                }
+            }
+            writer.write(LINE_SEPARATOR);
+            rows++;
+        }
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * 写入单个值，包含分隔符、引号或换行时用双引号包裹，值中的双引号转义成两个双引号
+     */
+    private void writeValue(Writer writer, String value) throws IOException {
+        if (StringUtils.isEmpty(value)) {
+            return;
+        }
+        if (!needQuote(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                writer.write(QUOTE);
+            }
+            writer.write(c);
+        }
+        writer.write(QUOTE);
+    }
+
+    private boolean needQuote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 将多行表头按列合并成一行
+     * </p>
+     * 合并单元格的名称填充到其覆盖的每一列，同一列上下重复的名称只保留一个
+     * @return 每列的表头名称
+     */
+    private String[] flattenHeaders() {
+        List<List<ExportPlan.HeaderCell>> headerCells = plan.getHeaderCells();
+        int columns = plan.getColumns();
+        String[][] grid = new String[headerCells.size()][columns];
+        for (int r = 0; r < headerCells.size(); r++) {
+            for (ExportPlan.HeaderCell headerCell : headerCells.get(r)) {
+                if (StringUtils.isEmpty(headerCell.getName())) {
+                    continue;
+                }
+                CellRangeAddress range = headerCell.getRegion();
+                if (range == null) {
+                    grid[r][headerCell.getColumn()] = headerCell.getName();
+                    continue;
+                }
+                // 延伸到数据行的合并区域只取表头部分
+                for (int i = range.getFirstRow(); i <= Math.min(range.getLastRow(), grid.length - 1); i++) {
+                    for (int j = range.getFirstColumn(); j <= range.getLastColumn(); j++) {
+                        grid[i][j] = headerCell.getName();
+                    }
+                }
+            }
+        }
+        String[] names = new String[columns];
+        for (int c = 0; c < columns; c++) {
+            Set<String> parts = new LinkedHashSet<>();
+            for (String[] row : grid) {
+                if (StringUtils.isNotEmpty(row[c])) {
+                    parts.add(row[c]);
+                }
+            }
+            names[c] = String.join(HEADER_JOINER, parts);
+        }
+        return names;
+    }
+}
@@ -1,23 +1,29 @@
 package com.lwb.easy.excel;
 
+import com.lwb.easy.excel.enums.ExportFormat;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.util.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.BiFunction;
 import java.util.function.Predicate;
 
 import static com.lwb.easy.excel.constant.Constant.*;
-import static com.lwb.easy.excel.constant.Headers.CONTENT_DISPOSITION;
-import static com.lwb.easy.excel.constant.Headers.USER_AGENT;
+import static com.lwb.easy.excel.constant.Headers.*;
 import static com.lwb.easy.excel.constant.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 
 /**
@@ -31,8 +37,8 @@ public class DownloadUtil {
     /**
      * 格式化下载文件名函数
      */
-    private static final Function<String, String> FORMAT_FILE_NAME = (fileName) ->
-        String.format("attachment; filename=\"%s.%s\"", fileName, XLSX);
+    private static final BiFunction<String, ExportFormat, String> FORMAT_FILE_NAME = (fileName, format) ->
+        String.format("attachment; filename=\"%s.%s\"", fileName, format.getSuffix());
 
     /**
      * 判断是否是ie内核浏览器断言
@@ -45,6 +51,16 @@ public class DownloadUtil {
             // 是否是ie内核浏览器
             || userAgent.contains("TRIDENT");
 
+    /**
+     * 下载缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Range请求的单位
+     */
+    private static final String BYTES = "bytes";
+
     /**
      * 下载生成的临时文件
      */
@@ -52,7 +68,160 @@ public class DownloadUtil {
                                 HttpServletResponse response,
                                 String fileName,
                                 InputStream inStream) throws Exception {
+        try {
+            download(request, response, fileName, ExportFormat.XLSX, out -> IOUtils.copy(inStream, out));
+        } finally {
+            IOUtils.closeQuietly(inStream);
+        }
+    }
+
+    /**
+     * 下载文件
+     * </p>
+     * 设置Content-Length，支持单个Range请求（206 Partial Content）以便断点续传。
+     * 响应流不是FileChannel，transferTo无法零拷贝，文件内容按下载缓冲区大小直接读入缓冲区后写入响应流
+     * @param format 文件格式
+     * @param file   要下载的文件
+     * @return 是否已传输到文件末尾，断点续传的中间片段或传输失败时为false
+     */
+    public static boolean download(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   String fileName,
+                                   ExportFormat format,
+                                   File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            long[] range = parseRange(request.getHeader(RANGE), length);
+            setHeaders(request, response, fileName, format);
+            response.setHeader(ACCEPT_RANGES, BYTES);
+
+            if (range == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(CONTENT_RANGE, String.format("%s */%d", BYTES, length));
+                return false;
+            }
+            long start = range[0];
+            long end = range[1];
+            long count = end - start + 1;
+            if (count < length) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(CONTENT_RANGE, String.format("%s %d-%d/%d", BYTES, start, end, length));
+            }
+            response.setContentLengthLong(count);
+
+            OutputStream out = response.getOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(count, 1)));
+            long position = start;
+            while (position <= end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position + 1));
+                int read = channel.read(buffer, position);
+                // 文件在读取长度后被截断或删除
+                if (read < 0) {
+                    throw new IOException(String.format("文件%s在传输过程中被截断", file.getName()));
+                }
+                out.write(buffer.array(), 0, read);
+                position += read;
+            }
+            out.flush();
+            return end == length - 1;
+        }
+    }
+
+    /**
+     * 设置ETag响应头，并判断客户端缓存的文件是否仍然有效
+     * </p>
+     * If-None-Match与ETag一致（弱比较）时返回304 Not Modified，不再传输文件内容
+     * @param eTag 文件的ETag
+     * @return 是否未修改，为true时已设置304状态码
+     */
+    public static boolean notModified(HttpServletRequest request, HttpServletResponse response, String eTag) {
+        response.setHeader(ETAG, eTag);
+        String header = request.getHeader(IF_NONE_MATCH);
+        if (StringUtils.isEmpty(header)) {
+            return false;
+        }
+        for (String tag : header.split(COMMA)) {
+            String value = StringUtils.removeStart(tag.trim(), "W/");
+            if ("*".equals(value) || eTag.equals(value)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析Range请求头，只支持单个区间，多个区间时返回整个文件
+     * </p>
+     * 按RFC 7233，语法无效的Range（例如：bytes=500-100）忽略，返回整个文件；
+     * 语法有效但超出文件范围的区间不可满足，返回null
+     * @param header Range请求头，例如：bytes=100-、bytes=100-199、bytes=-500
+     * @param length 文件长度
+     * @return 起止位置（包含），区间不可满足时返回null
+     */
+    static long[] parseRange(String header, long length) {
+        long[] all = {0, length - 1};
+        if (StringUtils.isEmpty(header) || !header.startsWith(BYTES + "=") || header.contains(COMMA)) {
+            return all;
+        }
+        String spec = header.substring(BYTES.length() + 1).trim();
+        int index = spec.indexOf('-');
+        if (index < 0) {
+            return all;
+        }
+        String first = spec.substring(0, index).trim();
+        String last = spec.substring(index + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                if (!StringUtils.isNumeric(last)) {
+                    return all;
+                }
+                // bytes=-500 表示最后500个字节，bytes=-0不可满足
+                long suffix = Long.parseLong(last);
+                return suffix == 0 || length == 0 ? null : new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            if (!StringUtils.isNumeric(first) || !last.isEmpty() && !StringUtils.isNumeric(last)) {
+                return all;
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            // 结束位置小于开始位置的区间语法无效
+            if (end < start) {
+                return all;
+            }
+            return start >= length ? null : new long[]{start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return all;
+        }
+    }
+
+    /**
+     * 下载文件，文件内容由writer直接写入响应流
+     * </p>
+     * 先设置响应头，再通过缓冲流写出内容，不在内存中缓存整个文件
+     * @param format 文件格式
+     * @param writer 文件内容写出函数
+     */
+    public static void download(HttpServletRequest request,
+                                HttpServletResponse response,
+                                String fileName,
+                                ExportFormat format,
+                                StreamWriter writer) throws IOException {
+        setHeaders(request, response, fileName, format);
+
+        try (OutputStream out = new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE)) {
+            writer.write(out);
+        }
+    }
 
+    /**
+     * 设置下载响应头
+     */
+    private static void setHeaders(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   String fileName,
+                                   ExportFormat format) throws UnsupportedEncodingException {
         // 设置下载文件名
         String newFileName =
             Optional.of(request.getHeader(USER_AGENT).toUpperCase())
@@ -66,18 +235,18 @@ public class DownloadUtil {
                 }).orElse(new String(fileName.getBytes(UTF_8), ISO_8859_1));
 
         response.setContentType(APPLICATION_OCTET_STREAM_VALUE);
-        response.setHeader(CONTENT_DISPOSITION, FORMAT_FILE_NAME.apply(newFileName));
-
-        byte[] buffer = new byte[1024];
-        try (OutputStream outStream = response.getOutputStream();
-             PrintStream out = new PrintStream(outStream, true, UTF_8)) {
-            int len;
-            while ((len = inStream.read(buffer)) > 0) {
-                out.write(buffer, 0, len);
-                out.flush();
-            }
-        } finally {
-            IOUtils.closeQuietly(inStream);
-        }
+        response.setHeader(CONTENT_DISPOSITION, FORMAT_FILE_NAME.apply(newFileName, format));
+    }
+
+    /**
+     * 文件内容写出函数
+     */
+    @FunctionalInterface
+    public interface StreamWriter {
+        /**
+         * 将文件内容写入输出流
+         * @param out 输出流，由调用方负责关闭
+         */
+        void write(OutputStream out) throws IOException;
     }
 }
@@ -0,0 +1,228 @@
+package com.lwb.easy.excel;
+
+import com.google.common.io.ByteStreams;
+import com.lwb.easy.excel.annotation.Export;
+import com.lwb.easy.excel.enums.ExcelEngine;
+import com.lwb.easy.excel.enums.ExportFormat;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 启动预热
+ * </p>
+ * 在应用启动时扫描标注了Export注解的方法，提前解析、校验配置文件并编译导出计划，
+ * 解析数据类型的字段，避免发布后每个导出的首次请求都要解析配置和反射字段。
+ * 配置有误时启动失败，而不是在用户导出时才报错
+ */
+public final class ExcelBootstrap {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExcelBootstrap.class);
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String WARM_UP_NAME = "warm-up";
+
+    private ExcelBootstrap() {
+    }
+
+    /**
+     * 预热指定包（包含子包）下所有的导出方法
+     * @param packages 包名，例如：com.example.controller
+     * @return 预热的导出方法数
+     * @throws ExcelException 存在错误的配置时，包含所有出错的方法
+     */
+    public static int warmUp(String... packages) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String packageName : packages) {
+            classes.addAll(scan(packageName));
+        }
+        return warmUp(classes.toArray(new Class<?>[0]));
+    }
+
+    /**
+     * 预热指定类中所有的导出方法
+     * @param classes 包含导出方法的类
+     * @return 预热的导出方法数
+     * @throws ExcelException 存在错误的配置时，包含所有出错的方法
+     */
+    public static int warmUp(Class<?>... classes) {
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        int count = 0;
+        for (Class<?> clazz : classes) {
+            Method[] methods;
+            try {
+                methods = clazz.getDeclaredMethods();
+            } catch (LinkageError e) {
+                // 依赖的类不在classpath中，这样的类也不会被调用
+                LOGGER.debug("skip {}: {}", clazz.getName(), e.toString());
+                continue;
+            }
+            for (Method method : methods) {
+                if (!method.isAnnotationPresent(Export.class)) {
+                    continue;
+                }
+                try {
+                    warmUp(method);
+                    count++;
+                } catch (RuntimeException e) {
+                    errors.add(String.format("%s: %s", method, e.getMessage()));
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new ExcelException(String.format("%d个导出配置有误：%n%s", errors.size(), String.join("\n", errors)));
+        }
+        LOGGER.info("{} export configs warmed up in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    /**
+     * 用少量数据执行各种格式和引擎的导出，提前加载POI等类并触发JIT编译
+     * </p>
+     * 导出内容直接丢弃，不产生文件，但会通过ExportListener上报，导出名称为warm-up
+     */
+    public static void warmUpEngines() {
+        long start = System.nanoTime();
+        ExcelConfig.Header header = new ExcelConfig.Header();
+        header.setName(WARM_UP_NAME);
+        List<Object[]> data = Collections.singletonList(new Object[]{WARM_UP_NAME, 1, 1.5D, new Date(), true});
+        for (ExportFormat format : ExportFormat.values()) {
+            for (ExcelEngine engine : format == ExportFormat.XLSX ? ExcelEngine.values() : new ExcelEngine[]{null}) {
+                ExcelConfig config = new ExcelConfig();
+                config.setFileName(WARM_UP_NAME);
+                config.setHeaders(Collections.singletonList(Collections.nCopies(data.get(0).length, header)));
+                config.setFields(Arrays.asList("0", "1", "2", "3", "4"));
+                config.setFormat(format);
+                config.setEngine(engine);
+                ExcelUtil.write(data, config, ByteStreams.nullOutputStream());
+            }
+        }
+        LOGGER.info("excel engines warmed up in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 加载导出方法的配置并解析数据类型的字段
+     */
+    private static void warmUp(Method method) {
+        ExcelConfig config = ExcelConfigRegistry.get(method);
+        Class<?> rowType = getRowType(method);
+        if (rowType != null) {
+            ExcelConfigRegistry.getPlan(config).adapter(rowType);
+        }
+    }
+
+    /**
+     * 导出的数据类型，注解上没有设置时按返回值的泛型推断
+     * @return 数据类型，无法确定时为null
+     */
+    private static Class<?> getRowType(Method method) {
+        Class<?> rowType = method.getAnnotation(Export.class).rowType();
+        if (rowType != Void.class) {
+            return rowType;
+        }
+        Type type = method.getGenericReturnType();
+        if (!(type instanceof ParameterizedType)) {
+            return null;
+        }
+        ParameterizedType parameterized = (ParameterizedType) type;
+        Type[] arguments = parameterized.getActualTypeArguments();
+        Class<?> raw = (Class<?>) parameterized.getRawType();
+        boolean container = Iterable.class.isAssignableFrom(raw)
+            || Iterator.class.isAssignableFrom(raw)
+            || Stream.class.isAssignableFrom(raw);
+        return container && arguments.length == 1 && arguments[0] instanceof Class ? (Class<?>) arguments[0] : null;
+    }
+
+    /**
+     * 扫描包下的所有类，支持目录和jar包
+     * @param packageName 包名
+     * @return 类，不初始化
+     */
+    private static Set<Class<?>> scan(String packageName) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = ExcelBootstrap.class.getClassLoader();
+        }
+        String path = packageName.replace('.', '/');
+        Set<String> classNames = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> urls = loader.getResources(path);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                if ("jar".equals(url.getProtocol())) {
+                    classNames.addAll(scanJar(url, path));
+                } else if ("file".equals(url.getProtocol())) {
+                    classNames.addAll(scanDirectory(Paths.get(url.toURI()), packageName));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new ExcelException(String.format("扫描包%s失败", packageName), e);
+        }
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, loader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOGGER.debug("skip {}: {}", className, e.toString());
+            }
+        }
+        return classes;
+    }
+
+    private static List<String> scanDirectory(Path directory, String packageName) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(CLASS_SUFFIX))
+                .map(file -> directory.relativize(file).toString())
+                .map(name -> packageName + "." + toClassName(name.replace(File.separatorChar, '.')))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> scanJar(URL url, String path) throws IOException {
+        JarURLConnection connection = (JarURLConnection) url.openConnection();
+        connection.setUseCaches(false);
+        List<String> classNames = new ArrayList<>();
+        try (JarFile jar = connection.getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(path + "/") && name.endsWith(CLASS_SUFFIX)) {
+                    classNames.add(toClassName(name.replace('/', '.')));
+                }
+            }
+        }
+        return classNames;
+    }
+
+    private static String toClassName(String fileName) {
+        return fileName.substring(0, fileName.length() - CLASS_SUFFIX.length());
+    }
+}
@@ -1,17 +1,30 @@
 package com.lwb.easy.excel;
 
+import com.lwb.easy.excel.enums.ColumnWidth;
+import com.lwb.easy.excel.enums.ExcelEngine;
+import com.lwb.easy.excel.enums.ExportFormat;
 import com.lwb.easy.excel.exception.ExcelException;
 import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.SpreadsheetVersion;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
+ * 导出配置
+ * </p>
+ * ExcelConfigRegistry缓存的配置是冻结的，在多个导出间共享，调用setter会抛出异常；
+ * 需要修改时使用ExcelHelper#parseConfig或ExcelHelper#parseYml获取可修改的副本
  * @author liuweibo
  * @date 2019/8/14
  */
@@ -44,6 +57,65 @@ public class ExcelConfig implements Serializable {
      * 字段名称
      */
     List<String> fields;
+    /**
+     * 每个sheet最多写入的数据行数（不含表头）
+     * </p>
+     * 超过后自动创建新的sheet并重复绘制表头，默认为xlsx单个sheet能容纳的最大行数
+     */
+    Integer maxRowsPerSheet;
+    /**
+     * 数据超过一个sheet时，是否并发写入各个sheet
+     * </p>
+     * 只对List数据生效，Iterator、Stream等流式数据始终按顺序写入
+     */
+    Boolean parallel;
+    /**
+     * SXSSF内存中保留的行数，超过后刷新到临时文件；-1表示不限制
+     * </p>
+     * 未配置时使用ExcelSettings中的全局默认值，下同
+     */
+    Integer rowAccessWindowSize;
+    /**
+     * 是否压缩SXSSF临时文件
+     */
+    Boolean compressTempFiles;
+    /**
+     * 是否使用共享字符串表
+     * </p>
+     * 共享字符串表不是线程安全的，开启后parallel不生效
+     */
+    Boolean useSharedStringsTable;
+    /**
+     * 导出文件格式，未配置时使用Export注解上的格式，默认xlsx
+     */
+    ExportFormat format;
+    /**
+     * csv、tsv文件是否写入UTF-8 BOM，默认写入，否则excel打开中文会乱码
+     */
+    Boolean bom;
+    /**
+     * xlsx写入引擎，未配置时使用ExcelSettings中的全局默认值
+     * </p>
+     * NATIVE引擎直接写出xml，不产生临时文件，rowAccessWindowSize、compressTempFiles、
+     * useSharedStringsTable、parallel对其不生效
+     */
+    ExcelEngine engine;
+    /**
+     * 列宽策略，默认不设置列宽
+     * </p>
+     * 按表头和数据的显示宽度估算列宽，中文按两个字符宽度计算
+     */
+    ColumnWidth columnWidth;
+    /**
+     * SAMPLED策略采样的数据行数，默认100
+     */
+    Integer columnWidthSampleRows;
+    /**
+     * 是否已冻结，冻结后不可修改
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    transient boolean frozen;
 
     @Data
     @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -57,9 +129,116 @@ public class ExcelConfig implements Serializable {
         /**
          * 单元格合并规则
          * </p>
-         * 例如：0,1,2,3表示合并单元格第一行和第二行的第三列和第四列，都是从0开始
+         * 例如：0,1,2,3表示合并单元格第一行和第二行的第三列和第四列，都是从0开始。
+         * 区域可以延伸到表头以下的数据行；加载配置时校验，必须是逗号分隔的4个非负整数，
+         * 起始行、列不大于结束行、列，至少包含两个单元格，且不能与其他合并区域重叠
          */
         String mergeIndex;
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        transient boolean frozen;
+
+        public void setName(String name) {
+            checkModifiable(frozen);
+            this.name = name;
+        }
+
+        public void setMergeIndex(String mergeIndex) {
+            checkModifiable(frozen);
+            this.mergeIndex = mergeIndex;
+        }
+
+        /**
+         * 复制表头
+         * @param frozen 副本是否冻结
+         */
+        Header copy(boolean frozen) {
+            Header header = new Header();
+            header.name = this.name;
+            header.mergeIndex = this.mergeIndex;
+            header.frozen = frozen;
+            return header;
+        }
+    }
+
+    public void setFileName(String fileName) {
+        checkModifiable();
+        this.fileName = fileName;
+    }
+
+    public void setFreezePaneIndex(String freezePaneIndex) {
+        checkModifiable();
+        this.freezePaneIndex = freezePaneIndex;
+    }
+
+    public void setHeaders(List<List<Header>> headers) {
+        checkModifiable();
+        this.headers = headers;
+    }
+
+    public void setFields(List<String> fields) {
+        checkModifiable();
+        this.fields = fields;
+    }
+
+    public void setMaxRowsPerSheet(Integer maxRowsPerSheet) {
+        checkModifiable();
+        this.maxRowsPerSheet = maxRowsPerSheet;
+    }
+
+    public void setParallel(Boolean parallel) {
+        checkModifiable();
+        this.parallel = parallel;
+    }
+
+    public void setRowAccessWindowSize(Integer rowAccessWindowSize) {
+        checkModifiable();
+        this.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    public void setCompressTempFiles(Boolean compressTempFiles) {
+        checkModifiable();
+        this.compressTempFiles = compressTempFiles;
+    }
+
+    public void setUseSharedStringsTable(Boolean useSharedStringsTable) {
+        checkModifiable();
+        this.useSharedStringsTable = useSharedStringsTable;
+    }
+
+    public void setFormat(ExportFormat format) {
+        checkModifiable();
+        this.format = format;
+    }
+
+    public void setBom(Boolean bom) {
+        checkModifiable();
+        this.bom = bom;
+    }
+
+    public void setEngine(ExcelEngine engine) {
+        checkModifiable();
+        this.engine = engine;
+    }
+
+    public void setColumnWidth(ColumnWidth columnWidth) {
+        checkModifiable();
+        this.columnWidth = columnWidth;
+    }
+
+    public void setColumnWidthSampleRows(Integer columnWidthSampleRows) {
+        checkModifiable();
+        this.columnWidthSampleRows = columnWidthSampleRows;
+    }
+
+    private void checkModifiable() {
+        checkModifiable(frozen);
+    }
+
+    private static void checkModifiable(boolean frozen) {
+        if (frozen) {
+            throw new ExcelException("缓存的导出配置不能修改，请使用ExcelHelper.parseConfig获取副本");
+        }
     }
 
     /**
@@ -70,6 +249,117 @@ public class ExcelConfig implements Serializable {
             .filter(config -> CollectionUtils.isNotEmpty(this.getHeaders()))
             .filter(config -> StringUtils.isNotEmpty(this.fileName))
             .orElseThrow(() -> new ExcelException("导出excel配置信息不完整"));
+        if (maxRowsPerSheet != null && (maxRowsPerSheet <= 0 || maxRowsPerSheet > maxDataRows())) {
+            throw new ExcelException(String.format("maxRowsPerSheet必须在1到%d之间", maxDataRows()));
+        }
+        if (rowAccessWindowSize != null) {
+            ExcelSettings.checkRowAccessWindowSize(rowAccessWindowSize);
+        }
+        if (columnWidthSampleRows != null && columnWidthSampleRows <= 0) {
+            throw new ExcelException("columnWidthSampleRows必须大于0");
+        }
+    }
+
+    /**
+     * 每个sheet实际最多写入的数据行数
+     * @return 数据行数
+     */
+    int getSheetMaxRows() {
+        return maxRowsPerSheet == null ? maxDataRows() : maxRowsPerSheet;
+    }
+
+    /**
+     * 实际的导出文件格式
+     */
+    ExportFormat getExportFormat() {
+        return format == null ? ExportFormat.XLSX : format;
+    }
+
+    /**
+     * 实际的xlsx写入引擎
+     */
+    ExcelEngine getExcelEngine() {
+        return engine == null ? ExcelSettings.getEngine() : engine;
+    }
+
+    /**
+     * 创建SXSSF excel，未配置的参数使用ExcelSettings中的全局默认值
+     * @return excel
+     */
+    TrackedWorkbook createWorkbook() {
+        return new TrackedWorkbook(
+            rowAccessWindowSize == null ? ExcelSettings.getRowAccessWindowSize() : rowAccessWindowSize,
+            compressTempFiles == null ? ExcelSettings.isCompressTempFiles() : compressTempFiles,
+            isSharedStrings()
+        );
+    }
+
+    /**
+     * 是否使用共享字符串表
+     */
+    boolean isSharedStrings() {
+        return useSharedStringsTable == null ? ExcelSettings.isUseSharedStringsTable() : useSharedStringsTable;
+    }
+
+    /**
+     * xlsx单个sheet除去表头后能容纳的最大数据行数
+     */
+    private int maxDataRows() {
+        return SpreadsheetVersion.EXCEL2007.getMaxRows() - (headers == null ? 0 : headers.size());
+    }
+
+    /**
+     * 复制一份冻结的配置，列表、表头都不可修改，用于缓存后在多个导出间共享
+     * @return 不可修改的配置
+     */
+    ExcelConfig unmodifiable() {
+        ExcelConfig config = copy(true);
+        config.frozen = true;
+        return config;
+    }
+
+    /**
+     * 复制一份可修改的配置
+     * @return 配置副本，表头、字段列表都是新的实例
+     */
+    ExcelConfig copy() {
+        return copy(false);
+    }
+
+    private ExcelConfig copy(boolean frozen) {
+        ExcelConfig config = new ExcelConfig();
+        config.setFileName(this.fileName);
+        config.setFreezePaneIndex(this.freezePaneIndex);
+        config.setMaxRowsPerSheet(this.maxRowsPerSheet);
+        config.setParallel(this.parallel);
+        config.setRowAccessWindowSize(this.rowAccessWindowSize);
+        config.setCompressTempFiles(this.compressTempFiles);
+        config.setUseSharedStringsTable(this.useSharedStringsTable);
+        config.setFormat(this.format);
+        config.setBom(this.bom);
+        config.setEngine(this.engine);
+        config.setColumnWidth(this.columnWidth);
+        config.setColumnWidthSampleRows(this.columnWidthSampleRows);
+        if (!frozen) {
+            config.setHeaders(this.headers == null ? null : this.headers.stream()
+                .map(row -> row.stream().map(header -> header.copy(false)).collect(Collectors.toList()))
+                .collect(Collectors.toList()));
+            config.setFields(this.fields == null ? null : new ArrayList<>(this.fields));
+            return config;
+        }
+        config.setHeaders(this.headers == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(
+                this.headers.stream()
+                    .map(row -> Collections.unmodifiableList(row.stream()
+                        .map(header -> header.copy(true))
+                        .collect(Collectors.toList())))
+                    .collect(Collectors.toList())
+            ));
+        config.setFields(this.fields == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(this.fields)));
+        return config;
     }
 
 }
@@ -0,0 +1,187 @@
+package com.lwb.easy.excel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.collect.MapMaker;
+import com.lwb.easy.excel.annotation.Export;
+import com.lwb.easy.excel.enums.ExportFormat;
+import com.lwb.easy.excel.enums.FileType;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * excel配置注册中心
+ * </p>
+ * 按导出方法或配置文件路径缓存解析、校验后的配置，同一个配置文件只解析一次。
+ * 加载时同时编译导出计划，合并规则、冻结规则格式错误的配置在加载时就失败。
+ * 缓存的配置是冻结的，在多个导出间共享，不能修改
+ */
+public final class ExcelConfigRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExcelConfigRegistry.class);
+
+    /**
+     * yml解析器，ObjectMapper配置完成后是线程安全的，全局共享一个实例
+     */
+    static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    /**
+     * 按导出方法缓存的配置
+     */
+    private static final ConcurrentMap<Method, ExcelConfig> METHOD_CONFIGS = new ConcurrentHashMap<>();
+
+    /**
+     * 按配置文件路径缓存的配置，key为 类名:配置文件路径（相对路径按类所在包解析）
+     */
+    private static final ConcurrentMap<String, ExcelConfig> PATH_CONFIGS = new ConcurrentHashMap<>();
+
+    /**
+     * 按数据类缓存的配置，由编译期生成的RowWriter创建
+     */
+    private static final ConcurrentMap<Class<?>, ExcelConfig> TYPE_CONFIGS = new ConcurrentHashMap<>();
+
+    /**
+     * 按配置实例缓存的导出计划，弱引用key按实例比较，配置不再使用后自动清除
+     */
+    private static final ConcurrentMap<ExcelConfig, ExportPlan> PLANS = new MapMaker().weakKeys().makeMap();
+
+    private ExcelConfigRegistry() {
+    }
+
+    /**
+     * 获取导出方法对应的配置
+     * @param method 标注了Export注解的方法
+     * @return 校验过的配置
+     */
+    public static ExcelConfig get(Method method) {
+        ExcelConfig config = METHOD_CONFIGS.get(method);
+        if (config == null) {
+            config = METHOD_CONFIGS.computeIfAbsent(method, m -> {
+                Export export = m.getAnnotation(Export.class);
+                if (export == null) {
+                    throw new ExcelException(String.format("方法%s没有标注Export注解", m));
+                }
+                if (export.type() == FileType.ANNOTATION) {
+                    if (export.rowType() == Void.class) {
+                        throw new ExcelException(String.format("方法%s使用注解配置，需要设置rowType", m));
+                    }
+                    ExcelConfig methodConfig = get(export.rowType()).copy();
+                    methodConfig.setFileName(export.value());
+                    methodConfig.setFormat(export.format());
+                    methodConfig = methodConfig.unmodifiable();
+                    getPlan(methodConfig);
+                    return methodConfig;
+                }
+                ExcelConfig pathConfig = get(m.getDeclaringClass(), export.value());
+                // 配置文件没有设置格式时使用注解上的格式
+                if (pathConfig.getFormat() == null && export.format() != ExportFormat.XLSX) {
+                    ExcelConfig methodConfig = pathConfig.copy();
+                    methodConfig.setFormat(export.format());
+                    methodConfig = methodConfig.unmodifiable();
+                    getPlan(methodConfig);
+                    return methodConfig;
+                }
+                return pathConfig;
+            });
+        }
+        return config;
+    }
+
+    /**
+     * 获取配置文件对应的配置
+     * @param clazz 用于加载配置文件的类
+     * @param path  配置文件路径，规则同Class#getResourceAsStream
+     * @return 校验过的配置
+     */
+    public static ExcelConfig get(Class<?> clazz, String path) {
+        String key = clazz.getName() + ":" + path;
+        ExcelConfig config = PATH_CONFIGS.get(key);
+        if (config == null) {
+            config = PATH_CONFIGS.computeIfAbsent(key, k -> load(clazz, path));
+        }
+        return config;
+    }
+
+    /**
+     * 获取数据类上ExcelColumn注解对应的配置
+     * @param type 标注了ExcelColumn的数据类，编译时需要配置ExcelColumnProcessor
+     * @return 校验过的配置，文件名为类名
+     */
+    public static ExcelConfig get(Class<?> type) {
+        ExcelConfig config = TYPE_CONFIGS.get(type);
+        if (config == null) {
+            config = TYPE_CONFIGS.computeIfAbsent(type, t -> {
+                ExcelConfig typeConfig = RowWriters.config(t);
+                getPlan(typeConfig);
+                return typeConfig;
+            });
+        }
+        return config;
+    }
+
+    /**
+     * 清空缓存，配置文件变更后可调用重新加载
+     */
+    public static void clear() {
+        METHOD_CONFIGS.clear();
+        PATH_CONFIGS.clear();
+        TYPE_CONFIGS.clear();
+        PLANS.clear();
+    }
+
+    /**
+     * 获取配置对应的导出计划
+     * </p>
+     * 不是从注册中心获取的配置在首次导出时编译，配置的表头、字段、冻结规则被替换后重新编译
+     * @param config excel配置
+     * @return 导出计划
+     */
+    static ExportPlan getPlan(ExcelConfig config) {
+        ExportPlan plan = PLANS.get(config);
+        if (plan == null || !plan.isCompiledFrom(config)) {
+            plan = ExportPlan.compile(config);
+            PLANS.put(config, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 解析yml配置文件
+     * @param clazz 用于加载配置文件的类
+     * @param path  配置文件路径
+     * @return excel配置
+     */
+    static ExcelConfig parse(Class<?> clazz, String path) {
+        try (InputStream in = clazz.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new ExcelException(String.format("配置文件%s不存在", path));
+            }
+            return YAML_MAPPER.readValue(in, ExcelConfig.class);
+        } catch (ExcelException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new ExcelException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 加载并校验配置，校验通过后转换成不可修改的配置并编译导出计划
+     * @param clazz 用于加载配置文件的类
+     * @param path  配置文件路径
+     * @return excel配置
+     */
+    private static ExcelConfig load(Class<?> clazz, String path) {
+        ExcelConfig config = parse(clazz, path);
+        config.validate();
+        ExcelConfig unmodifiable = config.unmodifiable();
+        getPlan(unmodifiable);
+        return unmodifiable;
+    }
+}
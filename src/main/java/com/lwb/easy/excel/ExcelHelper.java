@@ -1,26 +1,28 @@
 package com.lwb.easy.excel;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.collect.MapMaker;
 import com.lwb.easy.excel.annotation.Export;
+import com.lwb.easy.excel.enums.ExportStage;
 import com.lwb.easy.excel.exception.ExcelException;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateFormatUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static com.lwb.easy.excel.constant.Constant.*;
@@ -34,6 +36,91 @@ public class ExcelHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ExcelHelper.class);
 
+    /**
+     * 按类缓存标注了Export注解的方法，key为方法名
+     */
+    private static final ClassValue<Map<String, Method>> EXPORT_METHODS = new ClassValue<Map<String, Method>>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            Map<String, Method> methods = new HashMap<>();
+            Stream.of(type.getDeclaredMethods())
+                .filter(method -> method.getAnnotation(Export.class) != null)
+                .forEach(method -> methods.putIfAbsent(method.getName(), method));
+            return methods;
+        }
+    };
+
+    /**
+     * 按类名缓存调用栈中出现过的类，避免每次都Class.forName；
+     * 弱引用value不阻止类卸载，应用重新部署后旧的类加载器可以被回收
+     */
+    private static final ConcurrentMap<String, Class<?>> STACK_CLASSES = new MapMaker().weakValues().makeMap();
+
+    /**
+     * JDK9及以上的StackWalker#walk方法，已绑定StackWalker实例；JDK8下为null，退化为遍历完整调用栈
+     */
+    private static final MethodHandle STACK_WALK;
+    private static final MethodHandle FRAME_CLASS;
+    private static final MethodHandle FRAME_METHOD_NAME;
+
+    static {
+        MethodHandle walk = null;
+        MethodHandle frameClass = null;
+        MethodHandle frameMethodName = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> walkerType = Class.forName("java.lang.StackWalker");
+            Class<?> optionType = Class.forName("java.lang.StackWalker$Option");
+            Class<?> frameType = Class.forName("java.lang.StackWalker$StackFrame");
+            Object option = optionType.getField("RETAIN_CLASS_REFERENCE").get(null);
+            Object walker = walkerType.getMethod("getInstance", optionType).invoke(null, option);
+            walk = lookup.findVirtual(walkerType, "walk", MethodType.methodType(Object.class, Function.class))
+                .bindTo(walker);
+            frameClass = lookup.findVirtual(frameType, "getDeclaringClass", MethodType.methodType(Class.class))
+                .asType(MethodType.methodType(Class.class, Object.class));
+            frameMethodName = lookup.findVirtual(frameType, "getMethodName", MethodType.methodType(String.class))
+                .asType(MethodType.methodType(String.class, Object.class));
+        } catch (Throwable e) {
+            LOGGER.debug("StackWalker is not available, fall back to Thread#getStackTrace");
+        }
+        STACK_WALK = walk;
+        FRAME_CLASS = frameClass;
+        FRAME_METHOD_NAME = frameMethodName;
+    }
+
+    /**
+     * 从当前方法调用栈中获取标注有Export注解的方法
+     * </p>
+     * JDK9及以上使用StackWalker逐帧查找，找到后立即停止遍历
+     * @return 导出方法
+     */
+    static Method getExportMethod() {
+        if (STACK_WALK == null) {
+            return getMethod(Export.class, Thread.currentThread().getStackTrace());
+        }
+        Function<Stream<?>, Optional<Method>> finder = frames -> frames
+            .map(frame -> {
+                try {
+                    Class<?> clazz = (Class<?>) FRAME_CLASS.invokeExact(frame);
+                    String methodName = (String) FRAME_METHOD_NAME.invokeExact(frame);
+                    return EXPORT_METHODS.get(clazz).get(methodName);
+                } catch (Throwable e) {
+                    throw new ExcelException(e.getMessage(), e);
+                }
+            })
+            .filter(Objects::nonNull)
+            .findFirst();
+        try {
+            @SuppressWarnings("unchecked")
+            Optional<Method> method = (Optional<Method>) STACK_WALK.invoke(finder);
+            return method.orElseThrow(() -> new ExcelException("没有找到Export标记的方法!"));
+        } catch (ExcelException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelException(e.getMessage(), e);
+        }
+    }
+
     /**
      * 从方法调用栈中获取标注有制定注解的方法
      * @param type       注解类型
@@ -43,28 +130,34 @@ public class ExcelHelper {
     static <T extends Annotation> Method getMethod(Class<T> type, StackTraceElement... stackTrace) {
         return
             Arrays.stream(stackTrace)
-                .map(trace -> {
-                    try {
-                        Class<?> clazz = Class.forName(trace.getClassName());
-                        return
-                            Optional.ofNullable(clazz.getDeclaredMethods())
-                                .filter(ArrayUtils::isNotEmpty)
-                                .map(methods -> Stream.of(methods)
-                                    .filter(method -> method.getAnnotation(type) != null)
-                                    .findAny()
-                                    .orElse(null)
-                                )
-                                .orElse(null);
-                    } catch (ClassNotFoundException e) {
-                        LOGGER.error(e.getMessage(), e);
-                    }
-                    return null;
-                })
+                .map(trace -> Optional.ofNullable(STACK_CLASSES.computeIfAbsent(trace.getClassName(), ExcelHelper::loadClass))
+                    .map(clazz -> type == Export.class
+                        ? EXPORT_METHODS.get(clazz).get(trace.getMethodName())
+                        : Stream.of(clazz.getDeclaredMethods())
+                            .filter(method -> method.getName().equals(trace.getMethodName()))
+                            .filter(method -> method.getAnnotation(type) != null)
+                            .findAny()
+                            .orElse(null))
+                    .orElse(null))
                 .filter(Objects::nonNull)
-                .findAny()
+                .findFirst()
                 .orElseThrow(() -> new ExcelException("没有找到Export标记的方法!"));
     }
 
+    /**
+     * 加载调用栈中的类
+     * @param className 类名
+     * @return 类，加载失败时为null，不缓存
+     */
+    private static Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
     /**
      * 获取字段值
      * @param obj       对象
@@ -75,71 +168,61 @@ public class ExcelHelper {
         if (obj == null || StringUtils.isEmpty(fieldName)) {
             return EMPTY;
         }
-        // 如果传入对象是map 直接获取key值
+        // 如果传入对象是map 直接获取key值，非字符串的值按默认格式格式化
         if (obj instanceof Map) {
-            return ((Map) obj).containsKey(fieldName) ? (String) ((Map) obj).get(fieldName) : EMPTY;
+            return formatFieldValue(((Map) obj).get(fieldName), FieldFormat.DEFAULT);
         }
         // 支持获取嵌套对象的值（例如：user.role.name，表示获取user对象中嵌套对象role的name字段的值）
-        if (fieldName.contains(POINT)) {
-            int i = fieldName.indexOf(POINT);
-            String currentFieldName = fieldName.substring(0, i);
-            String nextFieldName = fieldName.substring(i + 1, fieldName.length());
-            Field field = obj.getClass().getDeclaredField(currentFieldName);
-            if (!field.isAccessible()) {
-                field.setAccessible(true);
-            }
-            Object o = field.get(obj);
-            if (field.isAccessible()) {
-                field.setAccessible(false);
-            }
-            // 当前字段为null，不在向下获取值
-            if (o == null) {
-                return EMPTY;
-            }
-            return getFieldValue(o, nextFieldName);
-        } else {
-            return formatFieldValue(obj, fieldName);
-        }
+        FieldAccessor accessor = FieldAccessor.of(obj.getClass(), fieldName);
+        return formatFieldValue(accessor.get(obj), accessor.getFormat(obj));
     }
 
     /**
      * 格式化字段的值
      * </p>
      * 日期字段根据JsonFormat注解的样式格式化，没有设置则使用相关默认的格式
-     * @param obj       对象
-     * @param fieldName 字段名称
+     * @param o        字段值
+     * @param format 字段格式
      * @return 格式化后的值
      */
-    private static String formatFieldValue(Object obj, String fieldName) throws NoSuchFieldException, IllegalAccessException {
-        Field field = obj.getClass().getDeclaredField(fieldName);
-        if (!field.isAccessible()) {
-            field.setAccessible(true);
+    static String formatFieldValue(Object o, FieldFormat format) {
+        // 当前字段或路径上的对象为null
+        if (o == null) {
+            return EMPTY;
         }
-        Object o = field.get(obj);
-        if (field.isAccessible()) {
-            field.setAccessible(false);
+        if (!isDate(o)) {
+            return String.valueOf(o);
         }
+        return format.format(o);
+    }
 
-        return Optional.of(o)
-            .filter(ExcelHelper::isDate)
-            .map(d -> {
-                String pattern = Optional.ofNullable(field.getAnnotation(JsonFormat.class))
-                    .map(JsonFormat::pattern)
-                    .orElseGet(() -> {
-                        try {
-                            PropertyDescriptor descriptor = new PropertyDescriptor(fieldName, o.getClass());
-                            return Optional.ofNullable(descriptor.getWriteMethod())
-                                .map(m -> m.getAnnotation(JsonFormat.class))
-                                .map(JsonFormat::pattern)
-                                .orElse(null);
-                        } catch (IntrospectionException e) {
-                            LOGGER.error(e.getMessage(), e);
-                            return null;
-                        }
-                    });
-                return dateFormat(o, pattern);
-            })
-            .orElse(String.valueOf(o));
+    /**
+     * 获取字段上JsonFormat注解设置的格式，字段上没有则从setter方法上获取
+     * </p>
+     * 每次调用都会读取注解，导出时应使用FieldAccessor#getFormat缓存的结果
+     * @param accessor 字段取值器
+     * @return 格式，没有设置返回null
+     */
+    static String getPattern(FieldAccessor accessor) {
+        Field field = accessor.getField();
+        String fieldName = field.getName();
+        Class<?> clazz = field.getDeclaringClass();
+        return Optional.ofNullable(field.getAnnotation(JsonFormat.class))
+            .map(JsonFormat::pattern)
+            .filter(StringUtils::isNotEmpty)
+            .orElseGet(() -> {
+                try {
+                    PropertyDescriptor descriptor = new PropertyDescriptor(fieldName, clazz);
+                    return Optional.ofNullable(descriptor.getWriteMethod())
+                        .map(m -> m.getAnnotation(JsonFormat.class))
+                        .map(JsonFormat::pattern)
+                        .filter(StringUtils::isNotEmpty)
+                        .orElse(null);
+                } catch (IntrospectionException e) {
+                    LOGGER.error(e.getMessage(), e);
+                    return null;
+                }
+            });
     }
 
     /**
@@ -147,63 +230,46 @@ public class ExcelHelper {
      * @param obj
      * @return
      */
-    private static boolean isDate(Object obj) {
+    static boolean isDate(Object obj) {
         return (obj instanceof Date) ||
             (obj instanceof LocalDateTime) ||
             (obj instanceof LocalDate) ||
             (obj instanceof LocalTime);
     }
 
-    /**
-     * 转换日期格式
-     * @param date    具体对象
-     * @param pattern 格式化格式
-     * @return 格式化后的值
-     */
-    private static String dateFormat(Object date, String pattern) {
-        if (date instanceof Date) {
-            return DateFormatUtils.format((Date) date, pattern);
-        } else if (date instanceof LocalTime) {
-            return
-                DateTimeFormatter.ofPattern(pattern == null ? HH_MM_SS : pattern).format((LocalTime) date);
-        } else if (date instanceof LocalDate) {
-            return
-                DateTimeFormatter.ofPattern(pattern == null ? YYYY_MM_DD : pattern).format((LocalDate) date);
-        } else if (date instanceof LocalDateTime) {
-            return
-                DateTimeFormatter.ofPattern(pattern == null ? YYYY_MM_DD_HH_MM_SS : pattern).format((LocalDateTime) date);
-        }
-        return String.valueOf(date);
-    }
-
     /**
      * 解析yml文件
      * </p>
-     * 解析成ExcelConfig，用于后续初始化excel
+     * 解析成ExcelConfig，用于后续初始化excel；每次调用都会重新解析，返回可修改的配置
      * @param method 被某个注解标记的方法
      * @return
      */
     public static ExcelConfig parseYml(Method method) {
-        try {
-            Class<?> clazz = method.getDeclaringClass();
-            Export exportConfig = method.getAnnotation(Export.class);
-            ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-            return mapper.readValue(
-                clazz.getResourceAsStream(exportConfig.value()),
-                ExcelConfig.class
-            );
-        } catch (Exception e) {
-            LOGGER.error(e.getMessage(), e);
-            throw new ExcelException(e.getMessage());
-        }
+        Export exportConfig = method.getAnnotation(Export.class);
+        return ExcelConfigRegistry.parse(method.getDeclaringClass(), exportConfig.value());
     }
 
     /**
      * 获取当前excel导出的配置文件
+     * </p>
+     * 返回ExcelConfigRegistry缓存配置的可修改副本，修改后不影响其他导出
      * @return
      */
     public static ExcelConfig parseConfig() {
-        return parseYml(getMethod(Export.class, Thread.currentThread().getStackTrace()));
+        return getConfig().copy();
+    }
+
+    /**
+     * 获取当前excel导出的配置
+     * </p>
+     * 配置由ExcelConfigRegistry缓存，已完成校验并冻结，在多个导出间共享
+     * @return 导出配置
+     */
+    static ExcelConfig getConfig() {
+        long start = System.nanoTime();
+        ExcelConfig config = ExcelConfigRegistry.get(getExportMethod());
+        ExcelSettings.getListener().stageCompleted(config.getFileName(), ExportStage.CONFIG, System.nanoTime() - start);
+        return config;
     }
 
 }
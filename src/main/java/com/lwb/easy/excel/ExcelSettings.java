@@ -0,0 +1,193 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.admission.AdmissionController;
+import com.lwb.easy.excel.cache.ExportCache;
+import com.lwb.easy.excel.enums.ExcelEngine;
+import com.lwb.easy.excel.exception.ExcelException;
+import com.lwb.easy.excel.listener.ExportListener;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * excel导出全局默认设置
+ * </p>
+ * 单个导出未在ExcelConfig中配置时使用这里的默认值，一般在应用启动时设置
+ */
+public final class ExcelSettings {
+
+    /**
+     * SXSSF内存中保留的行数，超过后刷新到临时文件；-1表示不限制
+     */
+    private static volatile int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+    /**
+     * 是否压缩SXSSF临时文件，压缩可减少磁盘占用，但会增加cpu开销
+     */
+    private static volatile boolean compressTempFiles = false;
+    /**
+     * 是否使用共享字符串表，重复字符串多时可减小文件体积，但字符串表常驻内存
+     */
+    private static volatile boolean useSharedStringsTable = false;
+    /**
+     * xlsx写入引擎
+     */
+    private static volatile ExcelEngine engine = ExcelEngine.POI;
+    /**
+     * 导出监听器，用于采集各阶段耗时、行数、文件大小等指标
+     */
+    private static volatile ExportListener listener = ExportListener.NOOP;
+    /**
+     * 执行异步任务（下载完成后删除临时文件等）的线程池，为null时使用内置的线程池
+     */
+    private static volatile ExecutorService executor;
+    /**
+     * 并行渲染sheet的线程池，为null时使用内置的线程池（线程数为cpu核数）
+     */
+    private static volatile ExecutorService renderExecutor;
+    /**
+     * 临时文件目录，为null时使用classpath下的temp目录；可以设置为tmpfs等内存文件系统
+     */
+    private static volatile Path tempDir;
+    /**
+     * 临时文件保留时长，超过后即使没有下载也会被删除；为null表示不清理
+     */
+    private static volatile Duration tempFileTtl = Duration.ofHours(1);
+    /**
+     * 导出准入控制，为null表示不限制
+     */
+    private static volatile AdmissionController admissionController;
+    /**
+     * 导出结果缓存，为null表示不缓存
+     */
+    private static volatile ExportCache exportCache;
+
+    private ExcelSettings() {
+    }
+
+    public static int getRowAccessWindowSize() {
+        return rowAccessWindowSize;
+    }
+
+    public static void setRowAccessWindowSize(int rowAccessWindowSize) {
+        checkRowAccessWindowSize(rowAccessWindowSize);
+        ExcelSettings.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    public static boolean isCompressTempFiles() {
+        return compressTempFiles;
+    }
+
+    public static void setCompressTempFiles(boolean compressTempFiles) {
+        ExcelSettings.compressTempFiles = compressTempFiles;
+    }
+
+    public static boolean isUseSharedStringsTable() {
+        return useSharedStringsTable;
+    }
+
+    public static void setUseSharedStringsTable(boolean useSharedStringsTable) {
+        ExcelSettings.useSharedStringsTable = useSharedStringsTable;
+    }
+
+    public static ExcelEngine getEngine() {
+        return engine;
+    }
+
+    public static void setEngine(ExcelEngine engine) {
+        if (engine == null) {
+            throw new ExcelException("engine不能为空");
+        }
+        ExcelSettings.engine = engine;
+    }
+
+    public static ExportListener getListener() {
+        return listener;
+    }
+
+    public static void setListener(ExportListener listener) {
+        ExcelSettings.listener = listener == null ? ExportListener.NOOP : listener;
+    }
+
+    public static ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public static void setExecutor(ExecutorService executor) {
+        ExcelSettings.executor = executor;
+    }
+
+    public static ExecutorService getRenderExecutor() {
+        return renderExecutor;
+    }
+
+    public static void setRenderExecutor(ExecutorService renderExecutor) {
+        ExcelSettings.renderExecutor = renderExecutor;
+    }
+
+    public static Path getTempDir() {
+        return tempDir;
+    }
+
+    public static void setTempDir(Path tempDir) {
+        ExcelSettings.tempDir = tempDir;
+    }
+
+    public static Duration getTempFileTtl() {
+        return tempFileTtl;
+    }
+
+    /**
+     * 设置临时文件保留时长，已启动的清理按新的时长重新安排
+     * @param tempFileTtl 保留时长，为null表示不清理
+     */
+    public static void setTempFileTtl(Duration tempFileTtl) {
+        if (tempFileTtl != null && (tempFileTtl.isNegative() || tempFileTtl.isZero())) {
+            throw new ExcelException("tempFileTtl必须大于0，或为null表示不清理");
+        }
+        ExcelSettings.tempFileTtl = tempFileTtl;
+        TempFileReaper.restart();
+    }
+
+    public static AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public static void setAdmissionController(AdmissionController admissionController) {
+        ExcelSettings.admissionController = admissionController;
+    }
+
+    public static ExportCache getExportCache() {
+        return exportCache;
+    }
+
+    public static void setExportCache(ExportCache exportCache) {
+        ExcelSettings.exportCache = exportCache;
+    }
+
+    /**
+     * 创建虚拟线程线程池，每个任务一个虚拟线程，需要JDK 21及以上版本
+     * </p>
+     * 通过反射调用，在低版本JDK上编译、运行时不依赖该API
+     * @return 线程池
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExcelException("虚拟线程需要JDK 21及以上版本", e);
+        }
+    }
+
+    /**
+     * 校验SXSSF内存行数
+     * @param rowAccessWindowSize 内存中保留的行数
+     */
+    static void checkRowAccessWindowSize(int rowAccessWindowSize) {
+        if (rowAccessWindowSize == 0 || rowAccessWindowSize < -1) {
+            throw new ExcelException("rowAccessWindowSize必须大于0，或为-1表示不限制");
+        }
+    }
+}
@@ -44,6 +44,46 @@ public interface ExcelStyle {
         return style;
     }
 
+    /**
+     * 数据格式样式，用于数字、日期单元格
+     * @param book   所属excel
+     * @param format excel数据格式，例如：yyyy-mm-dd、#,##0.00
+     * @return
+     */
+    static CellStyle dataFormatStyle(Workbook book, String format) {
+        CellStyle style = book.createCellStyle();
+        style.setDataFormat(book.createDataFormat().getFormat(format));
+        return style;
+    }
+
+    /**
+     * 将java日期格式转换成excel日期格式
+     * </p>
+     * 两者大部分占位符一致，只转换毫秒、上下午标记和单引号包裹的文本
+     * @param pattern java日期格式
+     * @return excel日期格式
+     */
+    static String toExcelDateFormat(String pattern) {
+        StringBuilder format = new StringBuilder(pattern.length() + 8);
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                format.append('"');
+            } else if (quoted) {
+                format.append(c);
+            } else if (c == 'S') {
+                format.append('0');
+            } else if (c == 'a') {
+                format.append("AM/PM");
+            } else {
+                format.append(c);
+            }
+        }
+        return format.toString();
+    }
+
     /**
      * 设置合并单元格后的样式
      * @param addresses 合并的单元格坐标地址
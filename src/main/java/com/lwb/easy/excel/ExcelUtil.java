@@ -1,15 +1,22 @@
 package com.lwb.easy.excel;
 
-import com.lwb.easy.excel.annotation.Export;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lwb.easy.excel.admission.AdmissionController;
+import com.lwb.easy.excel.cache.ExportCache;
+import com.lwb.easy.excel.enums.ExcelEngine;
+import com.lwb.easy.excel.enums.ExportFormat;
+import com.lwb.easy.excel.enums.ExportStage;
 import com.lwb.easy.excel.exception.ExcelException;
-import org.apache.commons.collections4.CollectionUtils;
+import com.lwb.easy.excel.job.ExportJobManager;
+import com.lwb.easy.excel.listener.ExportListener;
+import com.lwb.easy.excel.source.DataSources;
+import com.lwb.easy.excel.source.PageFetcher;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.util.IOUtils;
-import org.apache.poi.xssf.streaming.SXSSFCell;
 import org.apache.poi.xssf.streaming.SXSSFRow;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
@@ -19,15 +26,26 @@ import org.slf4j.LoggerFactory;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
-import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static com.lwb.easy.excel.constant.Constant.*;
 
@@ -45,21 +63,30 @@ public class ExcelUtil {
      */
     private static final String TEMP_EXCEL_PATH = "temp";
     private static final String CLASSPATH_URL_PREFIX = "classpath:";
+    /**
+     * 写文件缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * 上报状态时使用的线程池名称
+     */
+    private static final String CLEANUP_EXECUTOR_NAME = "excel-cleanup";
+    private static final String RENDER_EXECUTOR_NAME = "excel-render";
+    /**
+     * 流式数据的行数未知
+     */
+    private static final long UNKNOWN_ROWS = -1;
     private static Logger LOGGER = LoggerFactory.getLogger(ExcelUtil.class);
 
-    private static ThreadPoolExecutor EXECUTOR;
+    /**
+     * 内置的异步任务线程池，ExcelSettings中没有设置线程池时使用
+     */
+    private static volatile ExecutorService CLEANUP_EXECUTOR;
 
-    static {
-        int coreSize = Runtime.getRuntime().availableProcessors();
-        EXECUTOR = new ThreadPoolExecutor(
-            coreSize,
-            coreSize << 1,
-            200,
-            TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(coreSize << 2),
-            new ThreadPoolExecutor.CallerRunsPolicy()
-        );
-    }
+    /**
+     * 内置的sheet并行渲染线程池，ExcelSettings中没有设置线程池时使用
+     */
+    private static volatile ExecutorService RENDER_EXECUTOR;
 
     /**
      * 生成excel文件，并保存为临时文件，供后续下载
@@ -67,11 +94,171 @@ public class ExcelUtil {
      * @return 文件名
      */
     public static String save(List<?> data) {
-        Method method = ExcelHelper.getMethod(Export.class, Thread.currentThread().getStackTrace());
-        ExcelConfig config = ExcelHelper.parseYml(method);
-        // 配置完整性校验
-        config.validate();
-        return save(generateExcel(config, data), config);
+        return save(data, ExcelHelper.getConfig());
+    }
+
+    /**
+     * 按数据类上的ExcelColumn注解生成excel文件，并保存为临时文件，供后续下载
+     * @param data 数据
+     * @param type 标注了ExcelColumn的数据类
+     * @return 文件名
+     */
+    public static String save(List<?> data, Class<?> type) {
+        return save(data, ExcelConfigRegistry.get(type));
+    }
+
+    /**
+     * 根据指定配置生成excel文件，并保存为临时文件，供后续下载
+     * @param data   数据
+     * @param config excel配置，可通过ExcelConfigRegistry获取
+     * @return 文件名
+     */
+    public static String save(List<?> data, ExcelConfig config) {
+        AdmissionController.Permit permit = admit(config, data == null ? 0 : data.size());
+        try {
+            if (!isPoi(config)) {
+                return save(streamWriter(config, data == null ? null : data.iterator()), config);
+            }
+            return save(generateExcel(config, data), config);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 生成excel文件，并保存为临时文件，供后续下载
+     * </p>
+     * 数据逐行拉取并写入，已写入的数据不再被引用，适用于数据量很大的导出
+     * @param data 数据迭代器
+     * @return 文件名
+     */
+    public static String save(Iterator<?> data) {
+        return save(data, ExcelHelper.getConfig());
+    }
+
+    /**
+     * 根据指定配置生成excel文件，并保存为临时文件，供后续下载
+     * @param data   数据迭代器
+     * @param config excel配置
+     * @return 文件名
+     */
+    public static String save(Iterator<?> data, ExcelConfig config) {
+        AdmissionController.Permit permit = admit(config, data == null ? 0 : UNKNOWN_ROWS);
+        try {
+            if (!isPoi(config)) {
+                return save(streamWriter(config, data), config);
+            }
+            return save(generateExcel(config, data), config);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 生成excel文件，并保存为临时文件，供后续下载
+     * </p>
+     * 写入完成后关闭数据流，可直接传入数据库游标查询返回的Stream
+     * @param data 数据流
+     * @return 文件名
+     */
+    public static String save(Stream<?> data) {
+        return save(data, ExcelHelper.getConfig());
+    }
+
+    /**
+     * 根据指定配置生成excel文件，并保存为临时文件，供后续下载
+     * @param data   数据流
+     * @param config excel配置
+     * @return 文件名
+     */
+    public static String save(Stream<?> data, ExcelConfig config) {
+        try (Stream<?> stream = data) {
+            return save(stream.iterator(), config);
+        }
+    }
+
+    /**
+     * 分页获取数据生成excel文件，并保存为临时文件，供后续下载
+     * @param fetcher  分页数据获取函数
+     * @param pageSize 每页条数
+     * @return 文件名
+     */
+    public static String save(PageFetcher<?> fetcher, int pageSize) {
+        return save(DataSources.paged(fetcher, pageSize), ExcelHelper.getConfig());
+    }
+
+    /**
+     * 生成excel临时文件，开启导出缓存时相同查询条件的导出直接返回缓存的文件
+     * @param fingerprint 查询条件指纹，例如筛选参数拼接后的字符串
+     * @param data        数据获取函数，缓存命中时不调用
+     * @return 文件名
+     */
+    public static String save(String fingerprint, Supplier<? extends Iterator<?>> data) {
+        return save(fingerprint, ExcelHelper.getConfig(), data);
+    }
+
+    /**
+     * 生成excel临时文件，开启导出缓存时相同配置和查询条件的导出直接返回缓存的文件
+     * @param fingerprint 查询条件指纹，例如筛选参数拼接后的字符串
+     * @param config      excel配置，缓存按配置对象区分
+     * @param data        数据获取函数，缓存命中时不调用
+     * @return 文件名
+     */
+    public static String save(String fingerprint, ExcelConfig config, Supplier<? extends Iterator<?>> data) {
+        ExportCache cache = ExcelSettings.getExportCache();
+        if (cache == null) {
+            return save(data.get(), config);
+        }
+        return cache.get(config, fingerprint, () -> save(data.get(), config));
+    }
+
+    /**
+     * 根据指定配置生成excel，写入指定输出流
+     * @param data   数据
+     * @param config excel配置
+     * @param out    输出流，由调用方负责关闭
+     */
+    public static void write(List<?> data, ExcelConfig config, OutputStream out) {
+        AdmissionController.Permit permit = admit(config, data == null ? 0 : data.size());
+        try {
+            if (!isPoi(config)) {
+                write(streamWriter(config, data == null ? null : data.iterator()), config, out);
+                return;
+            }
+            write(generateExcel(config, data), config, out);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 根据指定配置生成excel，写入指定输出流
+     * @param data   数据迭代器
+     * @param config excel配置
+     * @param out    输出流，由调用方负责关闭
+     */
+    public static void write(Iterator<?> data, ExcelConfig config, OutputStream out) {
+        AdmissionController.Permit permit = admit(config, data == null ? 0 : UNKNOWN_ROWS);
+        try {
+            if (!isPoi(config)) {
+                write(streamWriter(config, data), config, out);
+                return;
+            }
+            write(generateExcel(config, data), config, out);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 提交异步导出任务，立即返回任务id
+     * </p>
+     * excel在ExportJobManager的默认线程池中生成，通过ExportJobManager查询任务状态并下载
+     * @param data 数据获取函数，在执行线程中调用
+     * @return 任务id
+     */
+    public static String submit(Supplier<? extends Iterator<?>> data) {
+        return ExportJobManager.getDefault().submit(ExcelHelper.getConfig(), data);
     }
 
     /**
@@ -81,30 +268,74 @@ public class ExcelUtil {
      * @param response 响应
      */
     public static void download(String fileName, HttpServletRequest request, HttpServletResponse response) {
-        String fileFullName = getFileFullPath(fileName);
+        downloadFile(fileName, request, response);
+    }
+
+    /**
+     * 直接通过文件名下载生成的excel文件
+     * </p>
+     * 传输到文件末尾后删除文件；断点续传的中间片段或传输中断时保留文件，客户端可以重试
+     * @param fileName 文件名
+     * @param request  请求
+     * @param response 响应
+     * @return 是否传输到了文件末尾，缓存的文件客户端已有时也为true
+     */
+    public static boolean downloadFile(String fileName, HttpServletRequest request, HttpServletResponse response) {
+        ExportCache cache = ExcelSettings.getExportCache();
+        ExportCache.Entry cached = cache == null ? null : cache.getEntry(fileName);
+        String fileFullName = cached == null ? getFileFullPath(fileName) : cached.getFile().getPath();
+        File file = new File(fileFullName);
+        if (!file.exists()) {
+            throw new ExcelException(String.format("文件%s不存在", fileName));
+        }
+        // 缓存的文件内容不变，客户端已有时不再传输
+        if (cached != null && DownloadUtil.notModified(request, response, cached.getETag())) {
+            return true;
+        }
 
+        ExportListener listener = ExcelSettings.getListener();
+        String downloadName = StringUtils.substringBefore(fileName, POINT);
+        // 临时文件名为 导出名称_uuid，上报时去掉uuid
+        String name = StringUtils.substringBeforeLast(downloadName, "_");
+        long start = System.nanoTime();
+        boolean completed;
         try {
-            FileInputStream inputStream = new FileInputStream(fileFullName);
-            DownloadUtil.download(
+            completed = DownloadUtil.download(
                 request,
                 response,
-                fileName.split(POINT)[0],
-                inputStream
+                downloadName,
+                ExportFormat.ofSuffix(StringUtils.substringAfterLast(fileName, POINT)),
+                file
             );
         } catch (Exception e) {
+            // 下载中断时保留文件，以便客户端断点续传
+            listener.stageFailed(name, ExportStage.DOWNLOAD, e);
             LOGGER.error(e.getMessage(), e);
             throw new ExcelException(e.getMessage());
-        } finally {
-            // 异步删除文件
-            EXECUTOR.execute(() ->
-                Optional.of(new File(fileFullName))
-                    // 文件是否存在
-                    .filter(File::exists)
-                    // 删除文件
-                    .filter(File::delete)
-                    .ifPresent(file -> LOGGER.debug(String.format("file %s deleted!", fileFullName)))
-            );
         }
+        listener.stageCompleted(name, ExportStage.DOWNLOAD, System.nanoTime() - start);
+        if (completed) {
+            listener.bytesWritten(name, ExportStage.DOWNLOAD, file.length());
+        }
+        // 传输到文件末尾后异步删除文件，断点续传的中间片段和缓存的文件不删除
+        if (completed && cached == null) {
+            ExecutorService executor = getCleanupExecutor();
+            try {
+                executor.execute(() ->
+                    Optional.of(file)
+                        // 文件是否存在
+                        .filter(File::exists)
+                        // 删除文件
+                        .filter(File::delete)
+                        .ifPresent(f -> LOGGER.debug(String.format("file %s deleted!", fileFullName)))
+                );
+            } catch (RejectedExecutionException e) {
+                // 不在请求线程中删除，留给定时清理
+                LOGGER.warn("failed to schedule deletion of {}, it will be deleted after ttl", fileFullName);
+            }
+            reportExecutor(CLEANUP_EXECUTOR_NAME, executor);
+        }
+        return completed;
     }
 
     /**
@@ -114,7 +345,18 @@ public class ExcelUtil {
      * @param response 响应
      */
     public static void download(List<?> data, HttpServletRequest request, HttpServletResponse response) {
-        download(data, ExcelHelper.parseConfig(), request, response);
+        download(data, ExcelHelper.getConfig(), request, response);
+    }
+
+    /**
+     * 按数据类上的ExcelColumn注解生成excel并下载
+     * @param data     数据
+     * @param type     标注了ExcelColumn的数据类
+     * @param request  请求
+     * @param response 响应
+     */
+    public static void download(List<?> data, Class<?> type, HttpServletRequest request, HttpServletResponse response) {
+        download(data, ExcelConfigRegistry.get(type), request, response);
     }
 
     /**
@@ -124,17 +366,124 @@ public class ExcelUtil {
      * @param request  请求
      * @param response 响应
      */
-    private static void download(List<?> data, ExcelConfig config, HttpServletRequest request, HttpServletResponse response) {
-        SXSSFWorkbook book = generateExcel(config, data);
-        // 输出文件流到response
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            book.write(out);
-            DownloadUtil.download(
-                request,
-                response,
-                config.getFileName(),
-                new ByteArrayInputStream(out.toByteArray())
-            );
+    public static void download(List<?> data, ExcelConfig config, HttpServletRequest request, HttpServletResponse response) {
+        AdmissionController.Permit permit = admit(config, data == null ? 0 : data.size());
+        try {
+            if (!isPoi(config)) {
+                download(streamWriter(config, data == null ? null : data.iterator()), config, request, response);
+                return;
+            }
+            download(generateExcel(config, data), config, request, response);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 生成excel并下载
+     * </p>
+     * 数据逐行拉取并写入，已写入的数据不再被引用，适用于数据量很大的导出
+     * @param data     数据迭代器
+     * @param request  请求
+     * @param response 响应
+     */
+    public static void download(Iterator<?> data, HttpServletRequest request, HttpServletResponse response) {
+        download(data, ExcelHelper.getConfig(), request, response);
+    }
+
+    /**
+     * 生成excel并下载
+     * </p>
+     * 写入完成后关闭数据流，可直接传入数据库游标查询返回的Stream
+     * @param data     数据流
+     * @param request  请求
+     * @param response 响应
+     */
+    public static void download(Stream<?> data, HttpServletRequest request, HttpServletResponse response) {
+        download(data, ExcelHelper.getConfig(), request, response);
+    }
+
+    /**
+     * 生成excel并下载
+     * @param data     数据流
+     * @param config   excel配置文件
+     * @param request  请求
+     * @param response 响应
+     */
+    public static void download(Stream<?> data, ExcelConfig config, HttpServletRequest request, HttpServletResponse response) {
+        try (Stream<?> stream = data) {
+            download(stream.iterator(), config, request, response);
+        }
+    }
+
+    /**
+     * 分页获取数据生成excel并下载
+     * @param fetcher  分页数据获取函数
+     * @param pageSize 每页条数
+     * @param request  请求
+     * @param response 响应
+     */
+    public static void download(PageFetcher<?> fetcher, int pageSize, HttpServletRequest request, HttpServletResponse response) {
+        download(DataSources.paged(fetcher, pageSize), ExcelHelper.getConfig(), request, response);
+    }
+
+    /**
+     * 生成excel并下载，开启导出缓存时相同查询条件的导出直接下载缓存的文件
+     * @param fingerprint 查询条件指纹
+     * @param data        数据获取函数，缓存命中时不调用
+     * @param request     请求
+     * @param response    响应
+     */
+    public static void download(String fingerprint, Supplier<? extends Iterator<?>> data,
+                                HttpServletRequest request, HttpServletResponse response) {
+        download(save(fingerprint, data), request, response);
+    }
+
+    /**
+     * 生成excel并下载
+     * @param data     数据迭代器
+     * @param config   excel配置文件
+     * @param request  请求
+     * @param response 响应
+     */
+    public static void download(Iterator<?> data, ExcelConfig config, HttpServletRequest request, HttpServletResponse response) {
+        AdmissionController.Permit permit = admit(config, data == null ? 0 : UNKNOWN_ROWS);
+        try {
+            if (!isPoi(config)) {
+                download(streamWriter(config, data), config, request, response);
+                return;
+            }
+            download(generateExcel(config, data), config, request, response);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 下载生成的excel
+     * @param book     excel
+     * @param config   excel配置文件
+     * @param request  请求
+     * @param response 响应
+     */
+    private static void download(SXSSFWorkbook book, ExcelConfig config, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            download(book::write, config, request, response);
+        } finally {
+            dispose(book, config);
+        }
+    }
+
+    /**
+     * 下载文件，文件内容直接写入响应流，不在内存中缓存整个文件
+     * @param writer   文件内容写出函数
+     * @param config   excel配置文件
+     * @param request  请求
+     * @param response 响应
+     */
+    private static void download(DownloadUtil.StreamWriter writer, ExcelConfig config, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            DownloadUtil.download(request, response, config.getFileName(), config.getExportFormat(), measured(writer, config));
         } catch (Exception e) {
             LOGGER.error(e.getMessage(), e);
             throw new ExcelException(e.getMessage());
@@ -143,84 +492,279 @@ public class ExcelUtil {
 
     /**
      * 生成excel
+     * </p>
+     * 开启并行渲染且数据超过一个sheet时，按sheet拆分数据并发写入
      * @param config excel配置
      * @param data   数据
      * @return 文件名
      */
     private static SXSSFWorkbook generateExcel(ExcelConfig config, List<?> data) {
-        SXSSFWorkbook book = new SXSSFWorkbook();
-        SXSSFSheet sheet = book.createSheet();
-        // 表头样式
-        CellStyle headerStyle = ExcelStyle.headerStyle(book);
-        List<CellRangeAddress> cellRangeAddresses = new ArrayList<>();
-        // 绘制表头
-        config.getHeaders()
-            .forEach(headers -> {
-                // 获取有记录的行数（最后有数据的行是第n行，前面有m行是空行没数据，则返回n-m）
-                SXSSFRow row = sheet.createRow(sheet.getPhysicalNumberOfRows());
-                headers.forEach(header -> {
-                    String name = header.getName();
-                    String merge = header.getMergeIndex();
-                    Cell cell = row.createCell(row.getPhysicalNumberOfCells());
-
-                    // 是否合并单元格
-                    if (merge != null) {
-                        String[] index = merge.split(",");
-                        CellRangeAddress cellAddresses = new CellRangeAddress(
-                            Integer.parseInt(index[0]),
-                            Integer.parseInt(index[1]),
-                            Integer.parseInt(index[2]),
-                            Integer.parseInt(index[3])
-                        );
-                        sheet.addMergedRegion(cellAddresses);
-                        // 收集合并的单元格，用于后续设置合并后的样式，防止合并后单元格样式丢失
-                        cellRangeAddresses.add(cellAddresses);
+        int maxRows = config.getSheetMaxRows();
+        // 共享字符串表不是线程安全的，使用时只能顺序写入
+        if (data == null || data.size() <= maxRows || !Boolean.TRUE.equals(config.getParallel()) || config.isSharedStrings()) {
+            return generateExcel(config, data == null ? null : data.iterator());
+        }
+        ExportPlan plan = ExcelConfigRegistry.getPlan(config);
+        long start = System.nanoTime();
+        SXSSFWorkbook book = config.createWorkbook();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        // 任意一个sheet写入失败后，其他sheet不再继续写入
+        AtomicBoolean failed = new AtomicBoolean();
+        try {
+            CellStyle headerStyle = ExcelStyle.headerStyle(book);
+            Map<String, CellStyle> styles = new HashMap<>();
+            ExecutorService executor = getRenderExecutor();
+            // sheet只能在当前线程创建，各个sheet的数据行再并发写入
+            // 每个sheet使用各自的列宽估算器，写入完成后合并
+            List<ColumnWidths> sheetWidths = new ArrayList<>();
+            for (int from = 0; from < data.size(); from += maxRows) {
+                SXSSFSheet sheet = createSheet(book, plan, headerStyle);
+                List<?> partition = data.subList(from, Math.min(from + maxRows, data.size()));
+                CellWriter cellWriter = new CellWriter(book, config.getFields().size(), styles);
+                ColumnWidths widths = ColumnWidths.of(config, plan, true);
+                sheetWidths.add(widths);
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return writeRows(sheet, plan, partition.iterator(), cellWriter, widths, maxRows, failed);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
                     }
-                    cell.setCellValue(name);
-                    cell.setCellStyle(headerStyle);
-                });
-            });
-
-        // excel设置单元格值
-        Optional.ofNullable(data)
-            .filter(CollectionUtils::isNotEmpty)
-            .ifPresent(list -> {
-                SXSSFRow row = sheet.createRow(sheet.getPhysicalNumberOfRows());
-                list.forEach(item -> config.getFields()
-                    .forEach(fieldName -> {
-                        SXSSFCell cell = row.createCell(row.getPhysicalNumberOfCells());
-                        try {
-                            cell.setCellValue(ExcelHelper.getFieldValue(item, fieldName));
-                        } catch (Exception e) {
-                            LOGGER.error(e.getMessage(), e);
-                            throw new ExcelException(e.getMessage());
-                        }
-                    }));
-            });
-
-        // 设置合并单元格后的单元格样式
-        ExcelStyle.setCellRangeAddress(cellRangeAddresses, sheet);
-
-        // 冻结表头
-        Optional.ofNullable(config.getFreezePaneIndex())
-            .filter(StringUtils::isNotEmpty)
-            .filter(s -> s.contains(COMMA))
-            .map(s -> {
-                String[] index = s.split(COMMA);
-                sheet.createFreezePane(
-                    Integer.parseInt(index[0]),
-                    Integer.parseInt(index[1]),
-                    Integer.parseInt(index[2]),
-                    Integer.parseInt(index[3])
-                );
-                return EMPTY;
-            })
-            // 默认冻结表头行数
-            .orElseGet(() -> {
-                sheet.createFreezePane(0, config.getHeaders().size());
-                return EMPTY;
-            });
-        return book;
+                }, executor));
+            }
+            reportExecutor(RENDER_EXECUTOR_NAME, executor);
+            long rows = 0;
+            for (CompletableFuture<Integer> future : futures) {
+                rows += future.join();
+            }
+            ColumnWidths widths = sheetWidths.get(0);
+            if (widths != null) {
+                sheetWidths.subList(1, sheetWidths.size()).forEach(widths::merge);
+                book.forEach(widths::apply);
+            }
+            rendered(config, rows, start);
+            return book;
+        } catch (RuntimeException e) {
+            failed.set(true);
+            // 等待所有已提交的sheet停止写入后再释放excel，避免删除正在使用的临时文件
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .handle((result, error) -> null)
+                .join();
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            ExcelSettings.getListener().stageFailed(config.getFileName(), ExportStage.RENDER, cause);
+            dispose(book, config);
+            if (cause == e) {
+                throw e;
+            }
+            throw cause instanceof ExcelException ? (ExcelException) cause : new ExcelException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 生成excel
+     * </p>
+     * 数据超过一个sheet的最大行数时，自动创建新的sheet继续写入
+     * @param config excel配置
+     * @param data   数据迭代器
+     * @return 文件名
+     */
+    private static SXSSFWorkbook generateExcel(ExcelConfig config, Iterator<?> data) {
+        ExportPlan plan = ExcelConfigRegistry.getPlan(config);
+        long start = System.nanoTime();
+        SXSSFWorkbook book = config.createWorkbook();
+        try {
+            // 表头样式
+            CellStyle headerStyle = ExcelStyle.headerStyle(book);
+            SXSSFSheet sheet = createSheet(book, plan, headerStyle);
+            long rows = 0;
+            ColumnWidths widths = ColumnWidths.of(config, plan, true);
+            // excel设置单元格值
+            if (data != null) {
+                int maxRows = config.getSheetMaxRows();
+                CellWriter cellWriter = new CellWriter(book, config.getFields().size());
+                rows += writeRows(sheet, plan, data, cellWriter, widths, maxRows, null);
+                while (data.hasNext()) {
+                    rows += writeRows(createSheet(book, plan, headerStyle), plan, data, cellWriter, widths, maxRows, null);
+                }
+            }
+            // 列宽在所有数据写入后设置，SXSSF刷新到磁盘的行不影响列宽
+            if (widths != null) {
+                book.forEach(widths::apply);
+            }
+            rendered(config, rows, start);
+            return book;
+        } catch (RuntimeException e) {
+            ExcelSettings.getListener().stageFailed(config.getFileName(), ExportStage.RENDER, e);
+            dispose(book, config);
+            throw e;
+        }
+    }
+
+    /**
+     * 创建sheet，按导出计划绘制表头、冻结表头
+     * </p>
+     * 合并区域覆盖的空白单元格也设置表头样式，合并后的边框完整，不需要再逐个区域设置边框
+     * @param book        excel
+     * @param plan        导出计划
+     * @param headerStyle 表头样式
+     * @return sheet
+     */
+    private static SXSSFSheet createSheet(SXSSFWorkbook book, ExportPlan plan, CellStyle headerStyle) {
+        SXSSFSheet sheet = book.createSheet();
+        List<List<ExportPlan.HeaderCell>> headerCells = plan.getHeaderCells();
+        for (int r = 0; r < headerCells.size(); r++) {
+            SXSSFRow row = sheet.createRow(r);
+            for (ExportPlan.HeaderCell headerCell : headerCells.get(r)) {
+                Cell cell = row.createCell(headerCell.getColumn());
+                if (headerCell.getName() != null) {
+                    cell.setCellValue(headerCell.getName());
+                }
+                cell.setCellStyle(headerStyle);
+            }
+        }
+        // 合并区域在编译计划时已校验过，不需要POI再次校验
+        for (CellRangeAddress region : plan.getMergedRegions()) {
+            sheet.addMergedRegionUnsafe(region);
+        }
+        sheet.createFreezePane(plan.getColSplit(), plan.getRowSplit(), plan.getLeftmostColumn(), plan.getTopRow());
+        return sheet;
+    }
+
+    /**
+     * 写入数据行
+     * </p>
+     * 支持普通对象、Map、Object[]、List，行数据适配器按数据类型解析一次，逐行写入时不再有反射查找
+     * @param sheet      所属sheet
+     * @param plan       导出计划
+     * @param data       数据迭代器
+     * @param cellWriter 单元格写入器
+     * @param widths     列宽估算器，未开启列宽计算时为null
+     * @param maxRows    当前sheet最多写入的数据行数
+     * @param failed     并行写入时其他sheet是否已失败，失败后停止写入；顺序写入时为null
+     * @return 写入的数据行数
+     */
+    private static int writeRows(SXSSFSheet sheet, ExportPlan plan, Iterator<?> data, CellWriter cellWriter,
+                                 ColumnWidths widths, int maxRows, AtomicBoolean failed) {
+        int columns = plan.getFields().size();
+        int firstRowIndex = plan.getHeaderRows();
+        int rowIndex = firstRowIndex;
+        int lastRowIndex = rowIndex + maxRows;
+        Class<?> type = null;
+        RowAdapter adapter = null;
+        while (rowIndex < lastRowIndex && data.hasNext()) {
+            if (failed != null && failed.get()) {
+                break;
+            }
+            Object item = data.next();
+            SXSSFRow row = sheet.createRow(rowIndex++);
+            if (item == null) {
+                continue;
+            }
+            try {
+                // 数据类型变化时重新获取行数据适配器
+                if (item.getClass() != type) {
+                    type = item.getClass();
+                    adapter = plan.adapter(type);
+                }
+                for (int i = 0; i < columns; i++) {
+                    cellWriter.write(row, i, adapter.get(item, i), adapter.getFormat(item, i));
+                }
+                if (widths != null && widths.isSampling()) {
+                    widths.sample(adapter, item);
+                }
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage(), e);
+                throw new ExcelException(e.getMessage());
+            }
+        }
+        return rowIndex - firstRowIndex;
+    }
+
+    /**
+     * 获取sheet并行渲染线程池，优先使用ExcelSettings中设置的线程池，否则首次使用时创建内置的线程池
+     * @return 线程池
+     */
+    private static ExecutorService getRenderExecutor() {
+        ExecutorService executor = ExcelSettings.getRenderExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        executor = RENDER_EXECUTOR;
+        if (executor == null) {
+            synchronized (ExcelUtil.class) {
+                executor = RENDER_EXECUTOR;
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(
+                        Runtime.getRuntime().availableProcessors(),
+                        new ThreadFactoryBuilder().setNameFormat("excel-render-%d").setDaemon(true).build()
+                    );
+                    RENDER_EXECUTOR = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 获取异步任务线程池，优先使用ExcelSettings中设置的线程池，否则首次使用时创建内置的线程池
+     * </p>
+     * 内置线程池的队列不限长度，删除文件等任务不会因为排队满而回到请求线程执行
+     * @return 线程池
+     */
+    private static ExecutorService getCleanupExecutor() {
+        ExecutorService executor = ExcelSettings.getExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        executor = CLEANUP_EXECUTOR;
+        if (executor == null) {
+            synchronized (ExcelUtil.class) {
+                executor = CLEANUP_EXECUTOR;
+                if (executor == null) {
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                        1,
+                        1,
+                        60,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        new ThreadFactoryBuilder().setNameFormat("excel-cleanup-%d").setDaemon(true).build()
+                    );
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                    CLEANUP_EXECUTOR = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 将生成的excel写入输出流
+     * @param book   excel
+     * @param config excel配置
+     * @param out    输出流
+     */
+    private static void write(SXSSFWorkbook book, ExcelConfig config, OutputStream out) {
+        try {
+            write(book::write, config, out);
+        } finally {
+            dispose(book, config);
+        }
+    }
+
+    /**
+     * 将文件内容写入输出流
+     * @param writer 文件内容写出函数
+     * @param config excel配置
+     * @param out    输出流
+     */
+    private static void write(DownloadUtil.StreamWriter writer, ExcelConfig config, OutputStream out) {
+        try {
+            measured(writer, config).write(out);
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new ExcelException(e.getMessage());
+        }
     }
 
     /**
@@ -228,24 +772,39 @@ public class ExcelUtil {
      * @param book   excel文件
      * @param config excel配置
      */
-    private static String save(Workbook book, ExcelConfig config) {
+    private static String save(SXSSFWorkbook book, ExcelConfig config) {
+        try {
+            return save(book::write, config);
+        } finally {
+            dispose(book, config);
+        }
+    }
+
+    /**
+     * 生成临时文件，供后续下载
+     * @param writer 文件内容写出函数
+     * @param config excel配置
+     */
+    private static String save(DownloadUtil.StreamWriter writer, ExcelConfig config) {
         // 生成唯一文件名
-        String fileName = String.format("%s_%s.%s", config.getFileName(), UUID.randomUUID(), XLSX);
+        String fileName = String.format("%s_%s.%s", config.getFileName(), UUID.randomUUID(), config.getExportFormat().getSuffix());
 
-        FileOutputStream out = null;
+        OutputStream out = null;
         try {
             String fileFullPath = getFileFullPath(fileName);
             File file = new File(fileFullPath);
             // 创建临时文件夹
             if (!file.getParentFile().exists()) {
-                file.getParentFile().mkdir();
+                file.getParentFile().mkdirs();
             }
+            // 启动过期临时文件的定时清理
+            TempFileReaper.start();
             // 创建临时文件
             if (!file.exists()) {
                 file.createNewFile();
             }
-            out = new FileOutputStream(file);
-            book.write(out);
+            out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+            measured(writer, config).write(out);
         } catch (IOException e) {
             LOGGER.error(e.getMessage(), e);
             throw new ExcelException(e.getMessage());
@@ -255,13 +814,132 @@ public class ExcelUtil {
         return fileName;
     }
 
+    /**
+     * 申请导出许可，ExcelSettings中没有设置准入控制时不限制
+     * @param config excel配置
+     * @param rows   数据行数，UNKNOWN_ROWS表示未知
+     * @return 许可，导出结束后关闭
+     */
+    private static AdmissionController.Permit admit(ExcelConfig config, long rows) {
+        AdmissionController controller = ExcelSettings.getAdmissionController();
+        if (controller == null) {
+            return AdmissionController.Permit.NONE;
+        }
+        int columns = config.getFields() == null ? 0 : config.getFields().size();
+        return controller.acquire(config.getFileName(), rows, columns);
+    }
+
+    /**
+     * 是否使用POI生成文件，csv、tsv以及原生引擎的xlsx直接写入输出流
+     * @param config excel配置
+     */
+    private static boolean isPoi(ExcelConfig config) {
+        return config.getExportFormat() == ExportFormat.XLSX && config.getExcelEngine() == ExcelEngine.POI;
+    }
+
+    /**
+     * 不经过POI的文件写出函数
+     * @param config excel配置
+     * @param data   数据迭代器
+     */
+    private static DownloadUtil.StreamWriter streamWriter(ExcelConfig config, Iterator<?> data) {
+        if (config.getExportFormat() == ExportFormat.XLSX) {
+            return out -> {
+                NativeXlsxWriter writer = new NativeXlsxWriter(config);
+                writer.write(data, out);
+                rowsWritten(config, writer.getRows());
+            };
+        }
+        return out -> {
+            CsvWriter writer = new CsvWriter(config);
+            writer.write(data, out);
+            rowsWritten(config, writer.getRows());
+        };
+    }
+
+    /**
+     * 统计文件内容写出的耗时和字节数
+     * @param writer 文件内容写出函数
+     * @param config excel配置
+     */
+    private static DownloadUtil.StreamWriter measured(DownloadUtil.StreamWriter writer, ExcelConfig config) {
+        return out -> {
+            ExportListener listener = ExcelSettings.getListener();
+            long start = System.nanoTime();
+            CountingOutputStream counting = new CountingOutputStream(out);
+            try {
+                writer.write(counting);
+                counting.flush();
+            } catch (IOException | RuntimeException e) {
+                listener.stageFailed(config.getFileName(), ExportStage.WRITE, e);
+                throw e;
+            }
+            listener.stageCompleted(config.getFileName(), ExportStage.WRITE, System.nanoTime() - start);
+            listener.bytesWritten(config.getFileName(), ExportStage.WRITE, counting.getCount());
+        };
+    }
+
+    /**
+     * 数据行写入SXSSF完成
+     * @param config excel配置
+     * @param rows   数据行数
+     * @param start  开始时间，单位纳秒
+     */
+    private static void rendered(ExcelConfig config, long rows, long start) {
+        ExcelSettings.getListener().stageCompleted(config.getFileName(), ExportStage.RENDER, System.nanoTime() - start);
+        rowsWritten(config, rows);
+    }
+
+    private static void rowsWritten(ExcelConfig config, long rows) {
+        ExcelSettings.getListener().rowsWritten(config.getFileName(), rows, rows * config.getFields().size());
+    }
+
+    /**
+     * 上报线程池的活动线程数和排队任务数
+     * @param name     线程池名称
+     * @param executor 线程池
+     */
+    private static void reportExecutor(String name, ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            ExcelSettings.getListener().executorState(name, pool.getActiveCount(), pool.getQueue().size());
+        }
+    }
+
+    /**
+     * 释放excel占用的资源，删除SXSSF生成的临时文件
+     * @param book   excel文件
+     * @param config excel配置
+     */
+    private static void dispose(SXSSFWorkbook book, ExcelConfig config) {
+        if (book instanceof TrackedWorkbook) {
+            ExcelSettings.getListener().tempFilesUsed(config.getFileName(), ((TrackedWorkbook) book).getTempFileBytes());
+        }
+        if (!book.dispose()) {
+            LOGGER.warn("failed to delete temp files of workbook");
+        }
+        IOUtils.closeQuietly(book);
+    }
+
     /**
      * 获得临时文件全路径
      * @param fileName 临时文件名包含后缀
      * @return 全路径文件名
      */
     public static String getFileFullPath(String fileName) {
-        return getClassPathURL() + File.separator + TEMP_EXCEL_PATH + File.separator + fileName;
+        return new File(getTempDir().toFile(), fileName).getPath();
+    }
+
+    /**
+     * 获得临时文件目录，优先使用ExcelSettings中设置的目录，否则为classpath下的temp目录
+     * @return 临时文件目录
+     */
+    static Path getTempDir() {
+        Path tempDir = ExcelSettings.getTempDir();
+        if (tempDir != null) {
+            return tempDir;
+        }
+        return new File(getClassPathURL() + File.separator + TEMP_EXCEL_PATH).toPath();
     }
 
     /**
@@ -0,0 +1,295 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.lwb.easy.excel.constant.Constant.COMMA;
+
+/**
+ * 预编译的导出计划
+ * </p>
+ * 配置中的合并规则、冻结规则等字符串只在编译时解析、校验一次，格式错误的配置在加载时就失败，
+ * 而不是导出到一半才失败。每个sheet绘制表头时按计划回放，不再重复解析字符串、逐个区域设置边框；
+ * 每种数据类型的取值方式也只解析一次。
+ * 编译完成后不可修改，可在多个导出、多个线程间共享
+ */
+final class ExportPlan {
+
+    private static final int MAX_COLUMNS = SpreadsheetVersion.EXCEL2007.getMaxColumns();
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    /**
+     * 编译时的配置，用于判断配置是否被替换
+     */
+    private final List<List<ExcelConfig.Header>> sourceHeaders;
+    private final List<String> sourceFields;
+    private final String sourceFreezePaneIndex;
+
+    private final List<String> fields;
+    private final int headerRows;
+    /**
+     * 列数，取字段数、表头列数、合并区域覆盖列数中的最大值
+     */
+    private final int columns;
+    /**
+     * 每行需要设置表头样式的单元格，按列排序
+     */
+    private final List<List<HeaderCell>> headerCells;
+    private final List<CellRangeAddress> mergedRegions;
+    private final int colSplit;
+    private final int rowSplit;
+    private final int leftmostColumn;
+    private final int topRow;
+    /**
+     * 按数据类型缓存的行数据适配器
+     */
+    private final ConcurrentMap<Class<?>, RowAdapter> adapters = new ConcurrentHashMap<>();
+
+    private ExportPlan(ExcelConfig config, List<List<HeaderCell>> headerCells, List<CellRangeAddress> mergedRegions,
+                       int columns, int[] freeze) {
+        this.sourceHeaders = config.getHeaders();
+        this.sourceFields = config.getFields();
+        this.sourceFreezePaneIndex = config.getFreezePaneIndex();
+        this.fields = config.getFields() == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(config.getFields()));
+        this.headerRows = headerCells.size();
+        this.columns = columns;
+        this.headerCells = headerCells;
+        this.mergedRegions = mergedRegions;
+        this.colSplit = freeze[0];
+        this.rowSplit = freeze[1];
+        this.leftmostColumn = freeze[2];
+        this.topRow = freeze[3];
+    }
+
+    /**
+     * 编译配置
+     * @param config excel配置
+     * @return 导出计划
+     * @throws ExcelException 合并规则、冻结规则格式错误
+     */
+    static ExportPlan compile(ExcelConfig config) {
+        List<List<ExcelConfig.Header>> headers = config.getHeaders() == null
+            ? Collections.emptyList()
+            : config.getHeaders();
+        int columns = config.getFields() == null ? 0 : config.getFields().size();
+        List<CellRangeAddress> regions = new ArrayList<>();
+        Map<ExcelConfig.Header, CellRangeAddress> headerRegions = new IdentityHashMap<>();
+        for (List<ExcelConfig.Header> row : headers) {
+            columns = Math.max(columns, row.size());
+            for (ExcelConfig.Header header : row) {
+                if (header.getMergeIndex() != null) {
+                    CellRangeAddress region = parseMergeIndex(header.getMergeIndex());
+                    for (CellRangeAddress other : regions) {
+                        if (other.intersects(region)) {
+                            throw new ExcelException(String.format("合并规则%s与%s重叠",
+                                region.formatAsString(), other.formatAsString()));
+                        }
+                    }
+                    regions.add(region);
+                    headerRegions.put(header, region);
+                    columns = Math.max(columns, region.getLastColumn() + 1);
+                }
+            }
+        }
+        if (columns > MAX_COLUMNS) {
+            throw new ExcelException(String.format("列数不能超过%d", MAX_COLUMNS));
+        }
+
+        // 表头单元格与合并区域覆盖的空白单元格都设置表头样式，合并后的边框由各单元格自身的边框组成
+        List<List<HeaderCell>> headerCells = new ArrayList<>(headers.size());
+        for (int r = 0; r < headers.size(); r++) {
+            List<ExcelConfig.Header> row = headers.get(r);
+            int rowColumns = row.size();
+            for (CellRangeAddress region : regions) {
+                if (region.getFirstRow() <= r && r <= region.getLastRow()) {
+                    rowColumns = Math.max(rowColumns, region.getLastColumn() + 1);
+                }
+            }
+            List<HeaderCell> cells = new ArrayList<>(rowColumns);
+            for (int c = 0; c < rowColumns; c++) {
+                if (c < row.size()) {
+                    ExcelConfig.Header header = row.get(c);
+                    cells.add(new HeaderCell(c, header.getName(), headerRegions.get(header)));
+                } else if (isMerged(regions, r, c)) {
+                    cells.add(new HeaderCell(c, null, null));
+                }
+            }
+            headerCells.add(Collections.unmodifiableList(cells));
+        }
+        return new ExportPlan(
+            config,
+            Collections.unmodifiableList(headerCells),
+            Collections.unmodifiableList(regions),
+            columns,
+            parseFreezePaneIndex(config.getFreezePaneIndex(), headers.size())
+        );
+    }
+
+    /**
+     * 计划是否由配置当前的表头、字段、冻结规则编译而来
+     * </p>
+     * 只比较引用，配置开始导出后不要再修改其中的列表
+     */
+    boolean isCompiledFrom(ExcelConfig config) {
+        return sourceHeaders == config.getHeaders()
+            && sourceFields == config.getFields()
+            && sourceFreezePaneIndex == config.getFreezePaneIndex();
+    }
+
+    /**
+     * 获取数据类型对应的行数据适配器，每个类型只解析一次
+     * @param type 数据类型，可以是普通对象、Map、Object[]、List
+     * @return 适配器
+     */
+    RowAdapter adapter(Class<?> type) {
+        RowAdapter adapter = adapters.get(type);
+        if (adapter == null) {
+            adapter = adapters.computeIfAbsent(type, t -> RowAdapter.of(t, fields));
+        }
+        return adapter;
+    }
+
+    List<String> getFields() {
+        return fields;
+    }
+
+    int getHeaderRows() {
+        return headerRows;
+    }
+
+    int getColumns() {
+        return columns;
+    }
+
+    List<List<HeaderCell>> getHeaderCells() {
+        return headerCells;
+    }
+
+    List<CellRangeAddress> getMergedRegions() {
+        return mergedRegions;
+    }
+
+    int getColSplit() {
+        return colSplit;
+    }
+
+    int getRowSplit() {
+        return rowSplit;
+    }
+
+    int getLeftmostColumn() {
+        return leftmostColumn;
+    }
+
+    int getTopRow() {
+        return topRow;
+    }
+
+    /**
+     * 解析合并规则，例如：0,1,2,3
+     * </p>
+     * 合并区域可以延伸到表头以下的数据行，与表头一起在每个sheet中合并
+     */
+    private static CellRangeAddress parseMergeIndex(String mergeIndex) {
+        int[] index = parseIndex(mergeIndex, "合并规则");
+        if (index[0] > index[1] || index[2] > index[3]) {
+            throw new ExcelException(String.format("合并规则%s的起始行、列不能大于结束行、列", mergeIndex));
+        }
+        if (index[1] >= MAX_ROWS) {
+            throw new ExcelException(String.format("合并规则%s超出了最大行数%d", mergeIndex, MAX_ROWS));
+        }
+        CellRangeAddress region = new CellRangeAddress(index[0], index[1], index[2], index[3]);
+        if (region.getNumberOfCells() < 2) {
+            throw new ExcelException(String.format("合并规则%s至少要包含两个单元格", mergeIndex));
+        }
+        return region;
+    }
+
+    /**
+     * 解析冻结规则，未配置时冻结表头行
+     * @return 冻结列数、冻结行数、首列可见下标、首行可见下标
+     */
+    private static int[] parseFreezePaneIndex(String freezePaneIndex, int headerRows) {
+        if (StringUtils.isEmpty(freezePaneIndex) || !freezePaneIndex.contains(COMMA)) {
+            return new int[]{0, headerRows, 0, headerRows};
+        }
+        return parseIndex(freezePaneIndex, "冻结规则");
+    }
+
+    /**
+     * 解析逗号分隔的4个非负整数
+     */
+    private static int[] parseIndex(String value, String name) {
+        String[] parts = value.split(COMMA);
+        if (parts.length != 4) {
+            throw new ExcelException(String.format("%s%s必须是逗号分隔的4个数字", name, value));
+        }
+        int[] index = new int[4];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                index[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new ExcelException(String.format("%s%s必须是逗号分隔的4个数字", name, value), e);
+            }
+            if (index[i] < 0) {
+                throw new ExcelException(String.format("%s%s不能包含负数", name, value));
+            }
+        }
+        return index;
+    }
+
+    private static boolean isMerged(List<CellRangeAddress> regions, int row, int column) {
+        for (CellRangeAddress region : regions) {
+            if (region.isInRange(row, column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 表头单元格
+     */
+    static final class HeaderCell {
+
+        private final int column;
+        /**
+         * 表头名称，合并区域覆盖的空白单元格为null
+         */
+        private final String name;
+        /**
+         * 表头配置的合并区域，没有合并时为null
+         */
+        private final CellRangeAddress region;
+
+        HeaderCell(int column, String name, CellRangeAddress region) {
+            this.column = column;
+            this.name = name;
+            this.region = region;
+        }
+
+        int getColumn() {
+            return column;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        CellRangeAddress getRegion() {
+            return region;
+        }
+    }
+}
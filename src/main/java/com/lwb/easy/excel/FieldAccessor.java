@@ -0,0 +1,356 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.lwb.easy.excel.constant.Constant.POINT;
+
+/**
+ * 字段取值器
+ * </p>
+ * 将字段路径（例如：user.role.name）按类编译成MethodHandle调用链并缓存，
+ * 同一个类的同一个字段路径只解析一次，后续取值不再有反射查找。
+ * 导入时的赋值调用链在首次赋值时才编译，只用于导出的字段不要求可写。
+ * 字段声明为接口或父类（例如Object）时，声明类型中没有的下级字段在取值时按对象的实际类型获取
+ */
+public final class FieldAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * getter统一适配成 (Object)Object 的签名，便于链式调用
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * 按类缓存字段取值器，ClassValue随类卸载而释放，不会造成类加载器泄漏
+     */
+    private static final ClassValue<ConcurrentMap<String, FieldAccessor>> CACHE =
+        new ClassValue<ConcurrentMap<String, FieldAccessor>>() {
+            @Override
+            protected ConcurrentMap<String, FieldAccessor> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    /**
+     * 字段路径
+     */
+    private final String path;
+    /**
+     * 路径上每一级字段的getter
+     */
+    private final MethodHandle[] getters;
+    /**
+     * 路径上每一级的字段
+     */
+    private final Field[] fields;
+    /**
+     * 声明类型中没有的下级字段路径，取值时按对象的实际类型获取，全部编译时为null
+     */
+    private final String rest;
+    /**
+     * 按实际类型缓存的下级字段取值器，rest为null时为null
+     */
+    private final ClassValue<FieldAccessor> tails;
+    /**
+     * 路径上每一级字段的setter，首次赋值时编译
+     */
+    private volatile MethodHandle[] setters;
+    /**
+     * 路径上中间级字段类型的无参构造器，赋值时中间对象为null则创建
+     */
+    private volatile MethodHandle[] constructors;
+    /**
+     * 字段格式化信息，首次使用时解析
+     */
+    private volatile FieldFormat format;
+
+    private FieldAccessor(String path, MethodHandle[] getters, Field[] fields, String rest) {
+        this.path = path;
+        this.getters = getters;
+        this.fields = fields;
+        this.rest = rest;
+        this.tails = rest == null ? null : new ClassValue<FieldAccessor>() {
+            @Override
+            protected FieldAccessor computeValue(Class<?> type) {
+                return of(type, rest);
+            }
+        };
+    }
+
+    /**
+     * 获取（必要时编译）指定类的字段取值器
+     * @param clazz 对象类型
+     * @param path  字段路径，支持嵌套（例如：user.role.name）
+     * @return 字段取值器
+     */
+    public static FieldAccessor of(Class<?> clazz, String path) {
+        ConcurrentMap<String, FieldAccessor> accessors = CACHE.get(clazz);
+        FieldAccessor accessor = accessors.get(path);
+        if (accessor == null) {
+            accessor = accessors.computeIfAbsent(path, p -> compile(clazz, p));
+        }
+        return accessor;
+    }
+
+    /**
+     * 批量获取字段取值器，下标与字段列表一一对应
+     * @param clazz 对象类型
+     * @param paths 字段路径
+     * @return 字段取值器
+     */
+    public static FieldAccessor[] of(Class<?> clazz, Iterable<String> paths) {
+        List<FieldAccessor> accessors = new ArrayList<>();
+        paths.forEach(path -> accessors.add(of(clazz, path)));
+        return accessors.toArray(new FieldAccessor[0]);
+    }
+
+    /**
+     * 获取字段值
+     * </p>
+     * 路径上任意一级为null时直接返回null，不再向下获取
+     * @param obj 对象
+     * @return 字段值
+     */
+    public Object get(Object obj) {
+        Object value = getCompiled(obj);
+        if (rest == null || value == null) {
+            return value;
+        }
+        return tails.get(value.getClass()).get(value);
+    }
+
+    /**
+     * 按编译的调用链取值，有按实际类型获取的下级字段时返回其所在的对象
+     */
+    private Object getCompiled(Object obj) {
+        Object value = obj;
+        try {
+            for (MethodHandle getter : getters) {
+                if (value == null) {
+                    return null;
+                }
+                value = (Object) getter.invokeExact(value);
+            }
+        } catch (Throwable e) {
+            throw new ExcelException(String.format("获取字段%s的值失败", path), e);
+        }
+        return value;
+    }
+
+    /**
+     * 设置字段值
+     * </p>
+     * 路径上的中间对象为null时通过无参构造器创建，值为null时不创建中间对象；
+     * 基本类型字段的null值忽略
+     * @param obj   对象
+     * @param value 字段值，类型需与字段类型一致
+     */
+    public void set(Object obj, Object value) {
+        if (rest != null) {
+            setRest(obj, value);
+            return;
+        }
+        MethodHandle[] setters = setters();
+        int last = getters.length - 1;
+        if (value == null && fields[last].getType().isPrimitive()) {
+            return;
+        }
+        Object target = obj;
+        try {
+            for (int i = 0; i < last; i++) {
+                Object next = (Object) getters[i].invokeExact(target);
+                if (next == null) {
+                    if (value == null) {
+                        return;
+                    }
+                    next = (Object) constructors[i].invokeExact();
+                    setters[i].invokeExact(target, next);
+                }
+                target = next;
+            }
+            setters[last].invokeExact(target, value);
+        } catch (ExcelException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelException(String.format("设置字段%s的值失败", path), e);
+        }
+    }
+
+    /**
+     * 按实际类型为声明类型中没有的下级字段赋值，中间对象为null时无法确定类型，不创建
+     */
+    private void setRest(Object obj, Object value) {
+        Object target = obj;
+        try {
+            for (MethodHandle getter : getters) {
+                target = (Object) getter.invokeExact(target);
+                if (target == null) {
+                    if (value == null) {
+                        return;
+                    }
+                    throw new ExcelException(String.format("设置字段%s的值失败，中间对象为null", path));
+                }
+            }
+        } catch (ExcelException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelException(String.format("设置字段%s的值失败", path), e);
+        }
+        tails.get(target.getClass()).set(target, value);
+    }
+
+    /**
+     * 字段路径
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 路径最末级的字段，用于读取字段上的格式化注解；
+     * 有按实际类型获取的下级字段时为最后一个编译的字段
+     */
+    public Field getField() {
+        return fields[fields.length - 1];
+    }
+
+    /**
+     * 字段上JsonFormat注解的格式，没有时为null
+     */
+    public String getPattern() {
+        return getFormat().getPattern();
+    }
+
+    /**
+     * 字段格式化信息，JsonFormat注解只在首次使用时读取一次
+     * </p>
+     * 按实际类型获取的下级字段在声明类型上没有格式，为默认格式，按行取格式使用getFormat(Object)
+     */
+    FieldFormat getFormat() {
+        if (rest != null) {
+            return FieldFormat.DEFAULT;
+        }
+        FieldFormat fieldFormat = format;
+        if (fieldFormat == null) {
+            fieldFormat = FieldFormat.of(ExcelHelper.getPattern(this));
+            format = fieldFormat;
+        }
+        return fieldFormat;
+    }
+
+    /**
+     * 对象中该字段的格式化信息
+     * </p>
+     * 按实际类型获取的下级字段使用对象实际类型上的格式，不同子类的格式各自缓存
+     * @param obj 对象
+     * @return 字段格式，路径上的对象为null时为默认格式
+     */
+    FieldFormat getFormat(Object obj) {
+        if (rest == null) {
+            return getFormat();
+        }
+        Object value = getCompiled(obj);
+        return value == null ? FieldFormat.DEFAULT : tails.get(value.getClass()).getFormat(value);
+    }
+
+    /**
+     * 获取（必要时编译）赋值调用链
+     */
+    private MethodHandle[] setters() {
+        MethodHandle[] handles = setters;
+        if (handles == null) {
+            synchronized (this) {
+                handles = setters;
+                if (handles == null) {
+                    MethodHandle[] creators = new MethodHandle[fields.length - 1];
+                    handles = new MethodHandle[fields.length];
+                    for (int i = 0; i < fields.length; i++) {
+                        Field field = fields[i];
+                        try {
+                            handles[i] = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+                            if (i < creators.length) {
+                                Constructor<?> constructor = field.getType().getDeclaredConstructor();
+                                constructor.setAccessible(true);
+                                creators[i] = LOOKUP.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+                            }
+                        } catch (IllegalAccessException | NoSuchMethodException | RuntimeException e) {
+                            throw new ExcelException(String.format("无法为%s的字段%s赋值",
+                                field.getDeclaringClass().getName(), field.getName()), e);
+                        }
+                    }
+                    constructors = creators;
+                    setters = handles;
+                }
+            }
+        }
+        return handles;
+    }
+
+    /**
+     * 编译字段路径
+     * @param clazz 对象类型
+     * @param path  字段路径
+     * @return 字段取值器
+     */
+    private static FieldAccessor compile(Class<?> clazz, String path) {
+        if (StringUtils.isEmpty(path)) {
+            throw new ExcelException("字段名称不能为空");
+        }
+        String[] names = StringUtils.split(path, POINT);
+        MethodHandle[] getters = new MethodHandle[names.length];
+        Field[] fields = new Field[names.length];
+        Class<?> type = clazz;
+        for (int i = 0; i < names.length; i++) {
+            Field field = findField(type, names[i]);
+            if (field == null) {
+                if (i == 0) {
+                    throw new ExcelException(String.format("%s中没有字段%s", clazz.getName(), names[i]));
+                }
+                // 声明类型中没有该字段，剩余路径在取值时按实际类型获取
+                return new FieldAccessor(path, Arrays.copyOf(getters, i), Arrays.copyOf(fields, i),
+                    StringUtils.join(names, POINT, i, names.length));
+            }
+            fields[i] = field;
+            try {
+                field.setAccessible(true);
+                getters[i] = LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new ExcelException(String.format("无法访问%s的字段%s", type.getName(), names[i]), e);
+            }
+            type = field.getType();
+        }
+        return new FieldAccessor(path, getters, fields, null);
+    }
+
+    /**
+     * 查找字段，包括父类中声明的字段
+     * @param clazz 对象类型
+     * @param name  字段名称
+     * @return 字段，没有时为null
+     */
+    private static Field findField(Class<?> clazz, String name) {
+        for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // 继续在父类中查找
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.lwb.easy.excel;
+
+import org.apache.commons.lang3.time.FastDateFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+
+import static com.lwb.easy.excel.constant.Constant.*;
+
+/**
+ * 字段格式化信息
+ * </p>
+ * 字段的JsonFormat格式只解析一次，格式化器按需创建后缓存，都是线程安全的
+ */
+final class FieldFormat {
+
+    /**
+     * 没有设置格式的字段共用的格式化信息
+     */
+    static final FieldFormat DEFAULT = new FieldFormat(null);
+
+    private static final FastDateFormat DEFAULT_DATE_FORMAT = FastDateFormat.getInstance(YYYY_MM_DD_HH_MM_SS);
+    private static final DateTimeFormatter DEFAULT_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM_SS);
+    private static final DateTimeFormatter DEFAULT_DATE_FORMATTER = DateTimeFormatter.ofPattern(YYYY_MM_DD);
+    private static final DateTimeFormatter DEFAULT_TIME_FORMATTER = DateTimeFormatter.ofPattern(HH_MM_SS);
+
+    /**
+     * JsonFormat设置的格式，没有设置为null
+     */
+    private final String pattern;
+    /**
+     * java.util.Date的格式化器，首次使用时创建
+     */
+    private volatile FastDateFormat dateFormat;
+    /**
+     * java.time的格式化器，首次使用时创建
+     */
+    private volatile DateTimeFormatter formatter;
+
+    private FieldFormat(String pattern) {
+        this.pattern = pattern;
+    }
+
+    static FieldFormat of(String pattern) {
+        return pattern == null ? DEFAULT : new FieldFormat(pattern);
+    }
+
+    /**
+     * JsonFormat设置的格式，没有设置为null
+     */
+    String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 转换日期格式
+     * @param date 具体对象
+     * @return 格式化后的值
+     */
+    String format(Object date) {
+        if (date instanceof Date) {
+            return dateFormat().format((Date) date);
+        } else if (date instanceof LocalTime) {
+            return formatter(DEFAULT_TIME_FORMATTER).format((TemporalAccessor) date);
+        } else if (date instanceof LocalDate) {
+            return formatter(DEFAULT_DATE_FORMATTER).format((TemporalAccessor) date);
+        } else if (date instanceof LocalDateTime) {
+            return formatter(DEFAULT_DATE_TIME_FORMATTER).format((TemporalAccessor) date);
+        }
+        return String.valueOf(date);
+    }
+
+    private FastDateFormat dateFormat() {
+        if (pattern == null) {
+            return DEFAULT_DATE_FORMAT;
+        }
+        FastDateFormat format = dateFormat;
+        if (format == null) {
+            format = FastDateFormat.getInstance(pattern);
+            dateFormat = format;
+        }
+        return format;
+    }
+
+    private DateTimeFormatter formatter(DateTimeFormatter defaultFormatter) {
+        if (pattern == null) {
+            return defaultFormatter;
+        }
+        DateTimeFormatter dateTimeFormatter = formatter;
+        if (dateTimeFormatter == null) {
+            dateTimeFormatter = DateTimeFormatter.ofPattern(pattern);
+            formatter = dateTimeFormatter;
+        }
+        return dateTimeFormatter;
+    }
+}
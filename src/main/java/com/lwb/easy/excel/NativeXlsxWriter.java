@@ -0,0 +1,502 @@
+package com.lwb.easy.excel;
+
+import com.google.common.collect.Iterators;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.lwb.easy.excel.constant.Constant.*;
+
+/**
+ * 原生xlsx写入器
+ * </p>
+ * 不经过POI的usermodel，直接将SpreadsheetML写入zip输出流，单次顺序写入，不产生临时文件。
+ * 支持多行表头、合并单元格、表头样式（与ExcelStyle#headerStyle一致）、冻结窗格、列宽和sheet自动拆分
+ */
+class NativeXlsxWriter {
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    /**
+     * 样式下标：默认样式、表头样式，数据格式样式从2开始
+     */
+    private static final int DEFAULT_STYLE = 0;
+    private static final int HEADER_STYLE = 1;
+    /**
+     * 自定义数据格式的起始id，之前的为excel内置格式
+     */
+    private static final int CUSTOM_FORMAT_ID = 164;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExcelConfig config;
+    private final ExportPlan plan;
+    private final List<String> fields;
+    /**
+     * 列名（A、B、C...），按列下标缓存
+     */
+    private final String[] columnNames;
+    /**
+     * 数据格式对应的样式下标，按出现顺序分配
+     */
+    private final Map<String, Integer> formatStyles = new LinkedHashMap<>();
+    /**
+     * 每列的日期、数字样式下标，-1表示未解析
+     */
+    private final int[] dateStyles;
+    private final int[] numberStyles;
+    /**
+     * 每列的日期、数字样式对应的字段格式，格式变化时重新获取样式
+     */
+    private final FieldFormat[] dateFormats;
+    private final FieldFormat[] numberFormats;
+    /**
+     * 列宽估算器，未开启列宽计算时为null
+     */
+    private final ColumnWidths widths;
+
+    private ZipOutputStream zip;
+    private Writer writer;
+    private int sheetCount;
+    /**
+     * 已写入的数据行数
+     */
+    private long rows;
+
+    NativeXlsxWriter(ExcelConfig config) {
+        this.config = config;
+        this.plan = ExcelConfigRegistry.getPlan(config);
+        this.fields = plan.getFields();
+        this.columnNames = new String[plan.getColumns()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = CellReference.convertNumToColString(i);
+        }
+        this.dateStyles = new int[fields.size()];
+        this.numberStyles = new int[fields.size()];
+        Arrays.fill(dateStyles, -1);
+        Arrays.fill(numberStyles, -1);
+        this.dateFormats = new FieldFormat[fields.size()];
+        this.numberFormats = new FieldFormat[fields.size()];
+        // 列宽需要在数据行之前写入，只能采样
+        this.widths = ColumnWidths.of(config, plan, false);
+    }
+
+    /**
+     * 写入excel
+     * @param data 数据迭代器，可为null
+     * @param out  输出流，由调用方负责关闭
+     */
+    void write(Iterator<?> data, OutputStream out) throws IOException {
+        zip = new ZipOutputStream(out);
+        writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        int maxRows = config.getSheetMaxRows();
+        writeSheet(data, maxRows);
+        while (data != null && data.hasNext()) {
+            writeSheet(data, maxRows);
+        }
+
+        writeContentTypes();
+        writeRootRels();
+        writeWorkbook();
+        writeWorkbookRels();
+        writeStyles();
+        writer.flush();
+        zip.finish();
+    }
+
+    /**
+     * 写入一个sheet，最多写入maxRows行数据
+     */
+    private void writeSheet(Iterator<?> data, int maxRows) throws IOException {
+        sheetCount++;
+        putEntry(String.format("xl/worksheets/sheet%d.xml", sheetCount));
+        writer.write(XML_DECLARATION);
+        writer.write("<worksheet xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\">");
+        writeSheetViews();
+        Iterator<?> sheetData = data;
+        if (widths != null) {
+            sheetData = sample(data, maxRows);
+            writeCols();
+        }
+        writer.write("<sheetData>");
+        int rowIndex = writeHeaders();
+        if (sheetData != null) {
+            writeRows(sheetData, rowIndex, maxRows);
+        }
+        writer.write("</sheetData>");
+        List<CellRangeAddress> mergedRegions = plan.getMergedRegions();
+        if (!mergedRegions.isEmpty()) {
+            writer.write("<mergeCells count=\"" + mergedRegions.size() + "\">");
+            for (CellRangeAddress region : mergedRegions) {
+                writer.write("<mergeCell ref=\"" + region.formatAsString() + "\"/>");
+            }
+            writer.write("</mergeCells>");
+        }
+        writer.write("</worksheet>");
+        closeEntry();
+    }
+
+    /**
+     * 采样前若干行数据估算列宽，采样的数据缓存后与剩余数据一起写入
+     * @return 包含采样数据的迭代器
+     */
+    private Iterator<?> sample(Iterator<?> data, int maxRows) {
+        if (data == null || !widths.isSampling()) {
+            return data;
+        }
+        List<Object> buffer = new ArrayList<>();
+        while (widths.isSampling() && buffer.size() < maxRows && data.hasNext()) {
+            Object item = data.next();
+            buffer.add(item);
+            if (item != null) {
+                widths.sample(plan.adapter(item.getClass()), item);
+            }
+        }
+        return Iterators.concat(buffer.iterator(), data);
+    }
+
+    /**
+     * 写入列宽，多个sheet时后面的sheet使用累计的采样结果
+     */
+    private void writeCols() throws IOException {
+        StringBuilder cols = new StringBuilder();
+        for (int i = 0; i < widths.getColumns(); i++) {
+            int width = widths.getWidth(i);
+            if (width > 0) {
+                cols.append("<col min=\"").append(i + 1).append("\" max=\"").append(i + 1)
+                    .append("\" width=\"").append(width / 256D).append("\" customWidth=\"1\"/>");
+            }
+        }
+        if (cols.length() > 0) {
+            writer.write("<cols>");
+            writer.write(cols.toString());
+            writer.write("</cols>");
+        }
+    }
+
+    /**
+     * 写入冻结窗格，规则与POI的Sheet#createFreezePane一致
+     */
+    private void writeSheetViews() throws IOException {
+        int colSplit = plan.getColSplit();
+        int rowSplit = plan.getRowSplit();
+        writer.write("<sheetViews><sheetView workbookViewId=\"0\">");
+        if (colSplit > 0 || rowSplit > 0) {
+            String activePane = colSplit > 0 && rowSplit > 0 ? "bottomRight" : rowSplit > 0 ? "bottomLeft" : "topRight";
+            writer.write("<pane");
+            if (colSplit > 0) {
+                writer.write(" xSplit=\"" + colSplit + "\"");
+            }
+            if (rowSplit > 0) {
+                writer.write(" ySplit=\"" + rowSplit + "\"");
+            }
+            writer.write(" topLeftCell=\"" + new CellReference(plan.getTopRow(), plan.getLeftmostColumn()).formatAsString()
+                + "\" activePane=\"" + activePane + "\" state=\"frozen\"/>");
+            writer.write("<selection pane=\"" + activePane + "\"/>");
+        }
+        writer.write("</sheetView></sheetViews>");
+    }
+
+    /**
+     * 按导出计划写入表头，合并单元格覆盖的空白单元格也设置表头样式，保证合并后的边框完整
+     * @return 表头行数
+     */
+    private int writeHeaders() throws IOException {
+        List<List<ExportPlan.HeaderCell>> headerCells = plan.getHeaderCells();
+        for (int r = 0; r < headerCells.size(); r++) {
+            writer.write("<row r=\"" + (r + 1) + "\">");
+            for (ExportPlan.HeaderCell headerCell : headerCells.get(r)) {
+                writeString(r, headerCell.getColumn(), headerCell.getName(), HEADER_STYLE);
+            }
+            writer.write("</row>");
+        }
+        return headerCells.size();
+    }
+
+    private void writeRows(Iterator<?> data, int rowIndex, int maxRows) throws IOException {
+        int lastRowIndex = rowIndex + maxRows;
+        int columns = fields.size();
+        Class<?> type = null;
+        RowAdapter adapter = null;
+        while (rowIndex < lastRowIndex && data.hasNext()) {
+            Object item = data.next();
+            writer.write("<row r=\"" + (rowIndex + 1) + "\">");
+            if (item != null) {
+                // 数据类型变化时重新获取行数据适配器
+                if (item.getClass() != type) {
+                    type = item.getClass();
+                    adapter = plan.adapter(type);
+                }
+                for (int i = 0; i < columns; i++) {
+                    writeValue(rowIndex, i, adapter.get(item, i), adapter.getFormat(item, i));
+                }
+            }
+            writer.write("</row>");
+            rowIndex++;
+            rows++;
+        }
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * 按值的类型写入单元格，规则与CellWriter一致
+     */
+    private void writeValue(int row, int column, Object value, FieldFormat format) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String) {
+            writeString(row, column, (String) value, DEFAULT_STYLE);
+        } else if (value instanceof Number) {
+            Number number = (Number) value;
+            if (!CellWriter.isExact(number) || !Double.isFinite(number.doubleValue())) {
+                writeString(row, column, number.toString(), DEFAULT_STYLE);
+                return;
+            }
+            if (numberStyles[column] < 0 || numberFormats[column] != format) {
+                String pattern = format.getPattern();
+                numberStyles[column] = pattern == null ? DEFAULT_STYLE : formatStyle(pattern);
+                numberFormats[column] = format;
+            }
+            writeNumber(row, column, number, numberStyles[column]);
+        } else if (value instanceof Boolean) {
+            writer.write("<c r=\"" + columnNames[column] + (row + 1) + "\" t=\"b\"><v>"
+                + ((Boolean) value ? 1 : 0) + "</v></c>");
+        } else if (value instanceof Date) {
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(((Date) value).getTime()), ZoneId.systemDefault());
+            writeDate(row, column, dateTime.toLocalDate(), dateTime.toLocalTime(), format, YYYY_MM_DD_HH_MM_SS);
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            writeDate(row, column, dateTime.toLocalDate(), dateTime.toLocalTime(), format, YYYY_MM_DD_HH_MM_SS);
+        } else if (value instanceof LocalDate) {
+            writeDate(row, column, (LocalDate) value, LocalTime.MIDNIGHT, format, YYYY_MM_DD);
+        } else if (value instanceof LocalTime) {
+            writeNumber(row, column, CellWriter.toExcelTime((LocalTime) value), dateStyle(column, format, HH_MM_SS));
+        } else {
+            writeString(row, column, String.valueOf(value), DEFAULT_STYLE);
+        }
+    }
+
+    private void writeDate(int row, int column, LocalDate date, LocalTime time, FieldFormat format, String defaultPattern) throws IOException {
+        if (!CellWriter.isExcelDate(date)) {
+            writeString(row, column, date.atTime(time).toString(), DEFAULT_STYLE);
+            return;
+        }
+        writeNumber(row, column, CellWriter.toExcelDate(date, time), dateStyle(column, format, defaultPattern));
+    }
+
+    private int dateStyle(int column, FieldFormat format, String defaultPattern) {
+        if (dateStyles[column] < 0 || dateFormats[column] != format) {
+            String pattern = format.getPattern();
+            dateStyles[column] = formatStyle(ExcelStyle.toExcelDateFormat(pattern == null ? defaultPattern : pattern));
+            dateFormats[column] = format;
+        }
+        return dateStyles[column];
+    }
+
+    /**
+     * 获取数据格式对应的样式下标，首次使用时分配
+     */
+    private int formatStyle(String format) {
+        return formatStyles.computeIfAbsent(format, f -> HEADER_STYLE + 1 + formatStyles.size());
+    }
+
+    private void writeNumber(int row, int column, Number number, int style) throws IOException {
+        writer.write("<c r=\"");
+        writer.write(columnNames[column]);
+        writer.write(Integer.toString(row + 1));
+        if (style != DEFAULT_STYLE) {
+            writer.write("\" s=\"");
+            writer.write(Integer.toString(style));
+        }
+        writer.write("\"><v>");
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            writer.write(Long.toString(number.longValue()));
+        } else {
+            writer.write(number.toString());
+        }
+        writer.write("</v></c>");
+    }
+
+    /**
+     * 写入行内字符串单元格
+     */
+    private void writeString(int row, int column, String value, int style) throws IOException {
+        writer.write("<c r=\"");
+        writer.write(columnNames[column]);
+        writer.write(Integer.toString(row + 1));
+        if (style != DEFAULT_STYLE) {
+            writer.write("\" s=\"");
+            writer.write(Integer.toString(style));
+        }
+        if (StringUtils.isEmpty(value)) {
+            writer.write("\"/>");
+            return;
+        }
+        writer.write("\" t=\"inlineStr\"><is><t");
+        // 首尾空白需要声明保留，否则excel打开时会被去掉
+        if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+            writer.write(" xml:space=\"preserve\"");
+        }
+        writer.write('>');
+        writeEscaped(value);
+        writer.write("</t></is></c>");
+    }
+
+    /**
+     * 写入转义后的xml文本，去掉xml不允许的控制字符
+     */
+    private void writeEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+
+    private void writeContentTypes() throws IOException {
+        putEntry("[Content_Types].xml");
+        writer.write(XML_DECLARATION);
+        writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+            + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<Override PartName=\"/xl/worksheets/sheet" + i
+                + ".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        writer.write("</Types>");
+        closeEntry();
+    }
+
+    private void writeRootRels() throws IOException {
+        putEntry("_rels/.rels");
+        writer.write(XML_DECLARATION);
+        writer.write("<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>");
+        closeEntry();
+    }
+
+    private void writeWorkbook() throws IOException {
+        putEntry("xl/workbook.xml");
+        writer.write(XML_DECLARATION);
+        writer.write("<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\"><sheets>");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<sheet name=\"Sheet" + (i - 1) + "\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>");
+        }
+        writer.write("</sheets></workbook>");
+        closeEntry();
+    }
+
+    private void writeWorkbookRels() throws IOException {
+        putEntry("xl/_rels/workbook.xml.rels");
+        writer.write(XML_DECLARATION);
+        writer.write("<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<Relationship Id=\"rId" + i + "\" Type=\"" + REL_NS
+                + "/worksheet\" Target=\"worksheets/sheet" + i + ".xml\"/>");
+        }
+        writer.write("<Relationship Id=\"rId" + (sheetCount + 1) + "\" Type=\"" + REL_NS + "/styles\" Target=\"styles.xml\"/>");
+        writer.write("</Relationships>");
+        closeEntry();
+    }
+
+    /**
+     * 写入样式：默认样式、表头样式（粗体、天蓝色填充、细边框、居中、自动换行）以及数据格式样式
+     */
+    private void writeStyles() throws IOException {
+        putEntry("xl/styles.xml");
+        writer.write(XML_DECLARATION);
+        writer.write("<styleSheet xmlns=\"" + MAIN_NS + "\">");
+        if (!formatStyles.isEmpty()) {
+            writer.write("<numFmts count=\"" + formatStyles.size() + "\">");
+            int formatId = CUSTOM_FORMAT_ID;
+            for (String format : formatStyles.keySet()) {
+                writer.write("<numFmt numFmtId=\"" + formatId++ + "\" formatCode=\"");
+                writeEscaped(format);
+                writer.write("\"/>");
+            }
+            writer.write("</numFmts>");
+        }
+        writer.write("<fonts count=\"2\">"
+            + "<font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font>"
+            + "</fonts>");
+        writer.write("<fills count=\"3\">"
+            + "<fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"40\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+            + "</fills>");
+        writer.write("<borders count=\"2\">"
+            + "<border><left/><right/><top/><bottom/><diagonal/></border>"
+            + "<border><left style=\"thin\"/><right style=\"thin\"/><top style=\"thin\"/><bottom style=\"thin\"/><diagonal/></border>"
+            + "</borders>");
+        writer.write("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>");
+        writer.write("<cellXfs count=\"" + (HEADER_STYLE + 1 + formatStyles.size()) + "\">"
+            + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"2\" borderId=\"1\" xfId=\"0\" applyFont=\"1\" applyFill=\"1\" applyBorder=\"1\" applyAlignment=\"1\">"
+            + "<alignment horizontal=\"center\" vertical=\"center\" wrapText=\"1\"/></xf>");
+        for (int i = 0; i < formatStyles.size(); i++) {
+            writer.write("<xf numFmtId=\"" + (CUSTOM_FORMAT_ID + i)
+                + "\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>");
+        }
+        writer.write("</cellXfs>");
+        writer.write("<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>");
+        writer.write("</styleSheet>");
+        closeEntry();
+    }
+
+    private void putEntry(String name) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+    }
+
+    private void closeEntry() throws IOException {
+        writer.flush();
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,74 @@
+package com.lwb.easy.excel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行数据适配器
+ * </p>
+ * 按列下标从一行数据中取值，屏蔽数据形态的差异：
+ * Map按字段名取值，Object[]、List按下标与fields对应，有编译期生成的RowWriter时直接调用getter，
+ * 其他对象通过字段取值器取值。
+ * 适配器按数据类型创建一次，逐行写入时只有取值，没有类型判断和反射查找
+ */
+interface RowAdapter {
+
+    /**
+     * 获取单元格的值
+     * @param row    行数据，不为null
+     * @param column 列下标，对应fields中的下标
+     * @return 值，可为null
+     */
+    Object get(Object row, int column);
+
+    /**
+     * 获取单元格的日期、数字格式
+     * @param row    行数据，不为null
+     * @param column 列下标
+     * @return 字段格式，Map、Object[]、List数据使用默认格式
+     */
+    default FieldFormat getFormat(Object row, int column) {
+        return FieldFormat.DEFAULT;
+    }
+
+    /**
+     * 创建数据类型对应的适配器
+     * @param type   数据类型
+     * @param fields 字段名称
+     * @return 适配器
+     */
+    static RowAdapter of(Class<?> type, List<String> fields) {
+        if (Map.class.isAssignableFrom(type)) {
+            String[] keys = fields.toArray(new String[0]);
+            return (row, column) -> ((Map<?, ?>) row).get(keys[column]);
+        }
+        if (Object[].class.isAssignableFrom(type)) {
+            return (row, column) -> {
+                Object[] values = (Object[]) row;
+                return column < values.length ? values[column] : null;
+            };
+        }
+        if (List.class.isAssignableFrom(type)) {
+            return (row, column) -> {
+                List<?> values = (List<?>) row;
+                return column < values.size() ? values.get(column) : null;
+            };
+        }
+        RowAdapter generated = RowWriters.adapter(type, fields);
+        if (generated != null) {
+            return generated;
+        }
+        FieldAccessor[] accessors = FieldAccessor.of(type, fields);
+        return new RowAdapter() {
+            @Override
+            public Object get(Object row, int column) {
+                return accessors[column].get(row);
+            }
+
+            @Override
+            public FieldFormat getFormat(Object row, int column) {
+                return accessors[column].getFormat(row);
+            }
+        };
+    }
+}
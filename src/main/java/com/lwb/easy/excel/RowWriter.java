@@ -0,0 +1,44 @@
+package com.lwb.easy.excel;
+
+/**
+ * 编译期生成的行数据写出器
+ * </p>
+ * 由ExcelColumnProcessor为标注了ExcelColumn的数据类生成，类名为 数据类名 + ExcelWriter，
+ * 嵌套类的外部类名与类名之间用_连接。表头、合并规则、字段和格式在编译时确定，
+ * 取值时按列下标直接调用getter，不要手动实现
+ */
+public interface RowWriter<T> {
+
+    /**
+     * 生成类名的后缀
+     */
+    String SUFFIX = "ExcelWriter";
+
+    /**
+     * 表头，规则同yml配置，每个元素是一行表头，被合并覆盖的单元格为空字符串
+     */
+    String[][] getHeaders();
+
+    /**
+     * 表头的合并规则，与表头一一对应，不合并的单元格为null
+     */
+    String[][] getMergeIndexes();
+
+    /**
+     * 字段名称
+     */
+    String[] getFields();
+
+    /**
+     * 每列的日期、数字格式，没有设置的列为null
+     */
+    String[] getFormats();
+
+    /**
+     * 获取单元格的值
+     * @param row    行数据
+     * @param column 列下标，对应getFields中的下标
+     * @return 值，可为null
+     */
+    Object get(T row, int column);
+}
@@ -0,0 +1,140 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.exception.ExcelException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 编译期生成的RowWriter的查找
+ * </p>
+ * 按数据类查找生成的写出器并缓存，没有生成时使用字段取值器。
+ * 导出配置的字段都是生成类中的字段时（可以是其中一部分或调整了顺序），按列下标映射后直接调用生成的getter
+ */
+final class RowWriters {
+
+    /**
+     * 按数据类缓存的写出器，ClassValue随类卸载而释放
+     */
+    private static final ClassValue<Optional<RowWriter<Object>>> WRITERS =
+        new ClassValue<Optional<RowWriter<Object>>>() {
+            @Override
+            protected Optional<RowWriter<Object>> computeValue(Class<?> type) {
+                return Optional.ofNullable(load(type));
+            }
+        };
+
+    private RowWriters() {
+    }
+
+    /**
+     * 获取数据类生成的写出器
+     * @param type 数据类
+     * @return 写出器，没有生成时为null
+     */
+    static RowWriter<Object> find(Class<?> type) {
+        return WRITERS.get(type).orElse(null);
+    }
+
+    /**
+     * 按生成的写出器创建导出配置
+     * @param type 标注了ExcelColumn的数据类
+     * @return 校验过的配置，文件名为类名
+     * @throws ExcelException 没有生成写出器
+     */
+    static ExcelConfig config(Class<?> type) {
+        RowWriter<Object> writer = find(type);
+        if (writer == null) {
+            throw new ExcelException(String.format("%s没有生成的%s，请检查是否配置了ExcelColumnProcessor",
+                type.getName(), writerName(type)));
+        }
+        String[][] names = writer.getHeaders();
+        String[][] mergeIndexes = writer.getMergeIndexes();
+        List<List<ExcelConfig.Header>> headers = new ArrayList<>(names.length);
+        for (int r = 0; r < names.length; r++) {
+            List<ExcelConfig.Header> row = new ArrayList<>(names[r].length);
+            for (int c = 0; c < names[r].length; c++) {
+                ExcelConfig.Header header = new ExcelConfig.Header();
+                header.setName(names[r][c]);
+                header.setMergeIndex(mergeIndexes[r][c]);
+                row.add(header);
+            }
+            headers.add(row);
+        }
+        ExcelConfig config = new ExcelConfig();
+        config.setFileName(type.getSimpleName());
+        config.setHeaders(headers);
+        config.setFields(Arrays.asList(writer.getFields()));
+        config.validate();
+        return config.unmodifiable();
+    }
+
+    /**
+     * 创建调用生成的getter取值的适配器
+     * @param type   数据类
+     * @param fields 导出配置的字段
+     * @return 适配器，没有生成写出器或字段不在生成类中时为null
+     */
+    static RowAdapter adapter(Class<?> type, List<String> fields) {
+        RowWriter<Object> writer = find(type);
+        if (writer == null) {
+            return null;
+        }
+        List<String> generatedFields = Arrays.asList(writer.getFields());
+        String[] patterns = writer.getFormats();
+        int[] columns = new int[fields.size()];
+        FieldFormat[] formats = new FieldFormat[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = generatedFields.indexOf(fields.get(i));
+            if (columns[i] < 0) {
+                // 嵌套字段等没有生成getter的字段，整行使用字段取值器
+                return null;
+            }
+            formats[i] = FieldFormat.of(patterns[columns[i]]);
+        }
+        return new RowAdapter() {
+            @Override
+            public Object get(Object row, int column) {
+                return writer.get(row, columns[column]);
+            }
+
+            @Override
+            public FieldFormat getFormat(Object row, int column) {
+                return formats[column];
+            }
+        };
+    }
+
+    /**
+     * 生成的写出器类名：包名.外部类名_类名ExcelWriter
+     */
+    static String writerName(Class<?> type) {
+        String name = type.getName();
+        int index = name.lastIndexOf('.');
+        return name.substring(0, index + 1) + name.substring(index + 1).replace('$', '_') + RowWriter.SUFFIX;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowWriter<Object> load(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null || type.isArray() || type.isPrimitive()) {
+            return null;
+        }
+        Class<?> writerClass;
+        try {
+            writerClass = Class.forName(writerName(type), true, loader);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!RowWriter.class.isAssignableFrom(writerClass)) {
+            return null;
+        }
+        try {
+            return (RowWriter<Object>) writerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ExcelException(String.format("创建%s失败", writerClass.getName()), e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.lwb.easy.excel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 临时文件清理
+ * </p>
+ * 下载完成的临时文件会立即删除，但生成后没有下载的文件会一直保留。
+ * 首次生成临时文件时启动定时任务，删除修改时间超过保留时长的导出文件；
+ * 只删除文件名符合 导出名称_uuid.后缀 的文件，临时目录与其他程序共用时不会误删
+ */
+final class TempFileReaper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TempFileReaper.class);
+
+    private static final Pattern EXPORT_FILE =
+        Pattern.compile(".+_[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.(xlsx|csv|tsv)");
+    /**
+     * 最短的清理间隔
+     */
+    private static final long MIN_PERIOD_MILLIS = 1000;
+
+    private static ScheduledExecutorService scheduler;
+    private static ScheduledFuture<?> task;
+    private static volatile boolean started;
+
+    private TempFileReaper() {
+    }
+
+    /**
+     * 启动定时清理，已启动时直接返回
+     */
+    static void start() {
+        if (!started) {
+            schedule(false);
+        }
+    }
+
+    /**
+     * 保留时长变更后重新安排清理，还没有启动时不启动
+     */
+    static void restart() {
+        schedule(true);
+    }
+
+    /**
+     * 按当前的保留时长安排清理，保留时长为null时停止清理
+     * @param restart 是否重新安排已启动的清理
+     */
+    private static synchronized void schedule(boolean restart) {
+        if (started != restart) {
+            return;
+        }
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        Duration ttl = ExcelSettings.getTempFileTtl();
+        started = true;
+        if (ttl == null) {
+            return;
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("excel-temp-reaper-%d").setDaemon(true).build()
+            );
+        }
+        // 每半个保留时长检查一次，文件最多比保留时长多存在半个保留时长
+        long period = Math.max(ttl.toMillis() / 2, MIN_PERIOD_MILLIS);
+        task = scheduler.scheduleWithFixedDelay(TempFileReaper::reap, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 删除超过保留时长的临时文件
+     * @return 删除的文件数
+     */
+    static int reap() {
+        Duration ttl = ExcelSettings.getTempFileTtl();
+        Path dir = ExcelUtil.getTempDir();
+        if (ttl == null || !Files.isDirectory(dir)) {
+            return 0;
+        }
+        long expireTime = System.currentTimeMillis() - ttl.toMillis();
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir,
+            file -> EXPORT_FILE.matcher(file.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < expireTime && Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("failed to delete temp file {}", file, e);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 定时任务抛出异常后不会再执行，这里只记录日志
+            LOGGER.warn("failed to clean temp files in {}", dir, e);
+        }
+        if (deleted > 0) {
+            LOGGER.debug("{} expired temp files deleted from {}", deleted, dir);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,58 @@
+package com.lwb.easy.excel;
+
+import org.apache.poi.xssf.streaming.GZIPSheetDataWriter;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 记录临时文件的SXSSF excel
+ * </p>
+ * SXSSF不对外暴露每个sheet的临时文件，这里在创建时记录下来，用于统计临时文件占用的磁盘空间
+ */
+class TrackedWorkbook extends SXSSFWorkbook {
+
+    private final Queue<File> tempFiles = new ConcurrentLinkedQueue<>();
+
+    TrackedWorkbook(int rowAccessWindowSize, boolean compressTmpFiles, boolean useSharedStringsTable) {
+        super(null, rowAccessWindowSize, compressTmpFiles, useSharedStringsTable);
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        if (isCompressTempFiles()) {
+            return new GZIPSheetDataWriter(getSharedStringSource()) {
+                @Override
+                public File createTempFile() throws IOException {
+                    return track(super.createTempFile());
+                }
+            };
+        }
+        return new SheetDataWriter(getSharedStringSource()) {
+            @Override
+            public File createTempFile() throws IOException {
+                return track(super.createTempFile());
+            }
+        };
+    }
+
+    /**
+     * 临时文件当前占用的字节数，已删除的文件不计入
+     */
+    long getTempFileBytes() {
+        long bytes = 0;
+        for (File file : tempFiles) {
+            bytes += file.length();
+        }
+        return bytes;
+    }
+
+    private File track(File file) {
+        tempFiles.add(file);
+        return file;
+    }
+}
@@ -0,0 +1,139 @@
+package com.lwb.easy.excel.admission;
+
+import com.lwb.easy.excel.exception.ExcelException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出准入控制
+ * </p>
+ * 按 行数 × 列数 估算每次导出的开销，从全局预算中扣除，导出结束后归还。
+ * 预算不足时按提交顺序排队等待，超过等待时长后拒绝导出，突发的大量导出只会变慢，不会耗尽内存。
+ * 单次导出的开销超过总预算时按总预算计算，即独占全部预算执行。
+ * 通过ExcelSettings#setAdmissionController启用，默认不限制
+ */
+public class AdmissionController {
+
+    /**
+     * 行数未知（Iterator、Stream等流式数据）时默认估算的行数
+     */
+    public static final long DEFAULT_STREAMING_ROWS = 10_000;
+
+    private final int budget;
+    private final long timeoutNanos;
+    private final long streamingRows;
+    /**
+     * 剩余预算，公平模式下按提交顺序分配，开销大的导出不会一直被开销小的导出插队
+     */
+    private final Semaphore available;
+
+    /**
+     * @param budget  全局预算，单位为单元格数
+     * @param timeout 预算不足时的最长等待时长，为0时立即拒绝
+     */
+    public AdmissionController(int budget, Duration timeout) {
+        this(budget, timeout, DEFAULT_STREAMING_ROWS);
+    }
+
+    /**
+     * @param budget        全局预算，单位为单元格数
+     * @param timeout       预算不足时的最长等待时长，为0时立即拒绝
+     * @param streamingRows 行数未知时估算的行数
+     */
+    public AdmissionController(int budget, Duration timeout, long streamingRows) {
+        if (budget <= 0) {
+            throw new ExcelException("budget必须大于0");
+        }
+        if (timeout == null || timeout.isNegative()) {
+            throw new ExcelException("timeout不能为空或负数");
+        }
+        if (streamingRows <= 0) {
+            throw new ExcelException("streamingRows必须大于0");
+        }
+        this.budget = budget;
+        this.timeoutNanos = timeout.toNanos();
+        this.streamingRows = streamingRows;
+        this.available = new Semaphore(budget, true);
+    }
+
+    /**
+     * 申请导出，预算不足时等待
+     * @param name    导出名称，用于提示信息
+     * @param rows    数据行数，小于0表示未知
+     * @param columns 列数
+     * @return 许可，导出结束后关闭以归还预算
+     * @throws ExcelException 等待超时或被中断
+     */
+    public Permit acquire(String name, long rows, int columns) {
+        int cost = estimate(rows, columns);
+        try {
+            if (!available.tryAcquire(cost, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new ExcelException(String.format("导出%s排队超时，同时导出的数据量过大，请稍后再试", name));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelException(String.format("导出%s等待时被中断", name), e);
+        }
+        return new Permit(available, cost);
+    }
+
+    /**
+     * 估算导出的开销
+     * @param rows    数据行数，小于0表示未知
+     * @param columns 列数
+     * @return 开销，最小为1，最大为总预算
+     */
+    public int estimate(long rows, int columns) {
+        long cells = (rows < 0 ? streamingRows : rows) * Math.max(columns, 1);
+        return (int) Math.max(1, Math.min(cells, budget));
+    }
+
+    /**
+     * 总预算
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * 剩余预算
+     */
+    public int getAvailable() {
+        return available.availablePermits();
+    }
+
+    /**
+     * 导出许可，关闭时归还预算，重复关闭只归还一次
+     */
+    public static final class Permit implements AutoCloseable {
+
+        /**
+         * 未启用准入控制时使用的许可
+         */
+        public static final Permit NONE = new Permit(null, 0);
+
+        private final Semaphore available;
+        private final int cost;
+        private boolean released;
+
+        private Permit(Semaphore available, int cost) {
+            this.available = available;
+            this.cost = cost;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (available == null || released) {
+                return;
+            }
+            released = true;
+            available.release(cost);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.lwb.easy.excel.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 导出列注解
+ * </p>
+ * 标记在数据类的字段上，编译时由ExcelColumnProcessor为数据类生成 类名 + ExcelWriter 的RowWriter，
+ * 导出时直接调用getter取值，不需要yml配置，也没有反射。
+ * 需要在编译参数中指定注解处理器：-processor com.lwb.easy.excel.processor.ExcelColumnProcessor，
+ * 与lombok一起使用时需要同时指定lombok.launch.AnnotationProcessorHider$AnnotationProcessor
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface ExcelColumn {
+    /**
+     * 表头名称，默认为字段名
+     * </p>
+     * 多个名称表示多行表头，例如：{"用户信息", "姓名"}；
+     * 同一行相邻的相同名称（上级表头也相同）自动合并，名称少于表头行数时最后一个名称向下合并
+     * @return
+     */
+    String[] value() default {};
+    /**
+     * 列的顺序，从小到大排列，相同时按字段声明顺序
+     * @return
+     */
+    int order() default 0;
+    /**
+     * 日期、数字格式，例如：yyyy-MM-dd、0.00
+     * </p>
+     * 未设置时使用字段上JsonFormat注解的格式
+     * @return
+     */
+    String format() default "";
+}
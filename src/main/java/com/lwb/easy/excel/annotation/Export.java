@@ -1,5 +1,6 @@
 package com.lwb.easy.excel.annotation;
 
+import com.lwb.easy.excel.enums.ExportFormat;
 import com.lwb.easy.excel.enums.FileType;
 
 import java.lang.annotation.ElementType;
@@ -20,7 +21,7 @@ public @interface Export {
     /**
      * 配置文件名称
      * </p>
-     * 目前只支持yml类型文件的配置
+     * type为ANNOTATION时为导出文件名
      * @return
      */
     String value();
@@ -29,4 +30,18 @@ public @interface Export {
      * @return
      */
     FileType type() default FileType.YML;
+    /**
+     * 导出文件格式，默认是xlsx
+     * </p>
+     * 配置文件中设置了format时以配置文件为准
+     * @return
+     */
+    ExportFormat format() default ExportFormat.XLSX;
+    /**
+     * 导出的数据类型，用于启动预热时提前解析字段
+     * </p>
+     * 未设置时按方法返回值的泛型推断，例如List&lt;UserDTO&gt;；type为ANNOTATION时必须设置
+     * @return
+     */
+    Class<?> rowType() default Void.class;
 }
@@ -0,0 +1,374 @@
+package com.lwb.easy.excel.cache;
+
+import com.lwb.easy.excel.ExcelConfig;
+import com.lwb.easy.excel.ExcelUtil;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static com.lwb.easy.excel.constant.Constant.POINT;
+
+/**
+ * 导出结果缓存
+ * </p>
+ * 相同的导出配置和查询条件指纹在保留时长内直接返回上次生成的文件，不再重新生成。
+ * 缓存的文件保存在本地磁盘，总大小超过上限时按最近最少使用淘汰；同一个key同时只生成一次，
+ * 并发的相同导出等待第一个导出完成后共用结果。缓存的文件下载后不删除，下载时返回ETag，
+ * 客户端携带If-None-Match再次请求时返回304。
+ * 通过ExcelSettings#setExportCache启用，默认不缓存
+ */
+public class ExportCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportCache.class);
+
+    /**
+     * 默认的缓存目录，位于临时文件目录下
+     */
+    private static final String DEFAULT_DIR = "cache";
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long ttlMillis;
+    /**
+     * 按访问顺序排列，第一个是最近最少使用的
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> files = new HashMap<>();
+    /**
+     * 正在生成的导出，值为缓存的文件名，没有缓存时为null
+     */
+    private final ConcurrentMap<Key, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+    private long size;
+    private boolean cleaned;
+
+    /**
+     * 缓存目录为临时文件目录下的cache目录
+     * @param maxBytes 缓存文件的总大小上限
+     * @param ttl      缓存保留时长
+     */
+    public ExportCache(long maxBytes, Duration ttl) {
+        this(null, maxBytes, ttl);
+    }
+
+    /**
+     * @param dir      缓存目录，不能与临时文件目录相同，为null时使用临时文件目录下的cache目录
+     * @param maxBytes 缓存文件的总大小上限
+     * @param ttl      缓存保留时长
+     */
+    public ExportCache(Path dir, long maxBytes, Duration ttl) {
+        if (maxBytes <= 0) {
+            throw new ExcelException("maxBytes必须大于0");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new ExcelException("ttl必须大于0");
+        }
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * 获取缓存的导出文件，没有时生成并缓存
+     * @param config      excel配置，按对象区分，同一个导出应当使用同一个配置对象
+     * @param fingerprint 查询条件指纹，相同的指纹表示相同的导出数据
+     * @param loader      生成导出文件，返回临时文件名
+     * @return 文件名，通过ExcelUtil#download(String, ...)下载
+     */
+    public String get(ExcelConfig config, String fingerprint, Supplier<String> loader) {
+        Key key = new Key(config, fingerprint);
+        String fileName = lookup(key);
+        if (fileName != null) {
+            return fileName;
+        }
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            fileName = join(existing);
+            // 生成的文件没有缓存时只能下载一次，各自生成
+            return fileName != null ? fileName : loader.get();
+        }
+        try {
+            // 等待期间其他线程可能已经生成完成
+            fileName = lookup(key);
+            if (fileName == null) {
+                fileName = loader.get();
+                future.complete(put(key, fileName) ? fileName : null);
+            } else {
+                future.complete(fileName);
+            }
+            return fileName;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 查询缓存的文件，用于下载
+     * @param fileName 文件名
+     * @return 缓存项，没有缓存或已过期时为null
+     */
+    public synchronized Entry getEntry(String fileName) {
+        Entry entry = files.get(fileName);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            remove(entry);
+            return null;
+        }
+        // 更新访问顺序
+        entries.get(entry.key);
+        return entry;
+    }
+
+    /**
+     * 删除指定导出的缓存，数据变更后调用
+     * @param config      excel配置
+     * @param fingerprint 查询条件指纹
+     */
+    public synchronized void invalidate(ExcelConfig config, String fingerprint) {
+        Entry entry = entries.get(new Key(config, fingerprint));
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * 删除指定配置的所有缓存
+     * @param config excel配置
+     */
+    public synchronized void invalidate(ExcelConfig config) {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.key.config == config) {
+                remove(entry);
+            }
+        }
+    }
+
+    /**
+     * 删除所有缓存
+     */
+    public synchronized void clear() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * 缓存文件的总大小
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private synchronized String lookup(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            remove(entry);
+            return null;
+        }
+        return entry.fileName;
+    }
+
+    /**
+     * 将生成的临时文件移动到缓存目录
+     * @return 是否已缓存，文件超过大小上限或移动失败时不缓存，仍作为普通临时文件下载
+     */
+    private boolean put(Key key, String fileName) {
+        File source = new File(ExcelUtil.getFileFullPath(fileName));
+        long length = source.length();
+        if (length > maxBytes) {
+            return false;
+        }
+        Path directory = getDir();
+        Path target = directory.resolve(fileName);
+        try {
+            Files.createDirectories(directory);
+            cleanOnce(directory);
+            Files.move(source.toPath(), target);
+        } catch (IOException e) {
+            LOGGER.warn("failed to cache export file {}", fileName, e);
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(key, fileName, target.toFile(), length, now + ttlMillis);
+        synchronized (this) {
+            Entry previous = entries.get(key);
+            if (previous != null) {
+                remove(previous);
+            }
+            entries.put(key, entry);
+            files.put(fileName, entry);
+            size += length;
+            evict(now);
+        }
+        return true;
+    }
+
+    /**
+     * 删除过期的缓存，总大小超过上限时删除最近最少使用的缓存
+     */
+    private void evict(long now) {
+        List<Entry> evicted = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.isExpired(now)) {
+                evicted.add(entry);
+            }
+        }
+        evicted.forEach(this::remove);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            files.remove(entry.fileName);
+            size -= entry.length;
+            delete(entry.file);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.key);
+        files.remove(entry.fileName);
+        size -= entry.length;
+        delete(entry.file);
+    }
+
+    /**
+     * 删除缓存文件，正在下载的文件在部分系统上无法删除，只记录日志
+     */
+    private static void delete(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("failed to delete cached export file {}", file, e);
+        }
+    }
+
+    /**
+     * 首次缓存时删除上次运行遗留的过期文件
+     */
+    private void cleanOnce(Path directory) throws IOException {
+        synchronized (this) {
+            if (cleaned) {
+                return;
+            }
+            cleaned = true;
+        }
+        long expireTime = System.currentTimeMillis() - ttlMillis;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() < expireTime) {
+                    delete(file.toFile());
+                }
+            }
+        }
+    }
+
+    private Path getDir() {
+        return dir != null ? dir : Paths.get(ExcelUtil.getFileFullPath(DEFAULT_DIR));
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ExcelException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 缓存项
+     */
+    public static final class Entry {
+
+        private final Key key;
+        private final String fileName;
+        private final File file;
+        private final long length;
+        private final long expireTime;
+        private final String eTag;
+
+        private Entry(Key key, String fileName, File file, long length, long expireTime) {
+            this.key = key;
+            this.fileName = fileName;
+            this.file = file;
+            this.length = length;
+            this.expireTime = expireTime;
+            // 文件名为 导出名称_uuid.后缀，缓存文件不会修改，uuid即可作为强校验的ETag
+            this.eTag = "\"" + StringUtils.substringBeforeLast(StringUtils.substringAfterLast(fileName, "_"), POINT) + "\"";
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expireTime;
+        }
+    }
+
+    /**
+     * 缓存key，配置按对象区分
+     */
+    private static final class Key {
+
+        private final ExcelConfig config;
+        private final String fingerprint;
+
+        private Key(ExcelConfig config, String fingerprint) {
+            this.config = Objects.requireNonNull(config, "config");
+            this.fingerprint = Objects.requireNonNull(fingerprint, "fingerprint");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return config == other.config && fingerprint.equals(other.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(config) + fingerprint.hashCode();
+        }
+    }
+}
@@ -17,5 +17,8 @@ public interface Constant {
     String ISO_8859_1 = "ISO8859_1";
 
     String XLSX = "xlsx";
+    String XLSX_SUFFIX = XLSX;
+    String CSV_SUFFIX = "csv";
+    String TSV_SUFFIX = "tsv";
 
 }
@@ -8,4 +8,9 @@ package com.lwb.easy.excel.constant;
 public interface Headers {
     String CONTENT_DISPOSITION = "Content-Disposition";
     String USER_AGENT = "User-Agent";
+    String ACCEPT_RANGES = "Accept-Ranges";
+    String RANGE = "Range";
+    String CONTENT_RANGE = "Content-Range";
+    String ETAG = "ETag";
+    String IF_NONE_MATCH = "If-None-Match";
 }
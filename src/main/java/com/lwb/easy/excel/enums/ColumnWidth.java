@@ -0,0 +1,24 @@
+package com.lwb.easy.excel.enums;
+
+/**
+ * 列宽策略
+ * </p>
+ * 列宽按表头和单元格文本的显示宽度估算，中日韩文字按两个字符宽度计算，
+ * 只保存每列的最大宽度，内存占用与行数无关
+ */
+public enum ColumnWidth {
+
+    /**
+     * 不设置列宽，使用excel默认列宽
+     */
+    NONE,
+    /**
+     * 按表头和前若干行数据估算，采样完成后不再有额外开销
+     */
+    SAMPLED,
+    /**
+     * 按表头和所有数据行估算；NATIVE引擎需要在写入数据前确定列宽，按SAMPLED处理
+     */
+    MAX
+
+}
@@ -0,0 +1,17 @@
+package com.lwb.easy.excel.enums;
+
+/**
+ * xlsx文件的生成方式
+ */
+public enum ExcelEngine {
+
+    /**
+     * 使用POI的SXSSF生成，支持并行渲染多个sheet
+     */
+    POI,
+    /**
+     * 直接写出SpreadsheetML到zip流，单次顺序写入，不产生临时文件
+     */
+    NATIVE
+
+}
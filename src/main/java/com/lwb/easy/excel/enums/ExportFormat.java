@@ -0,0 +1,58 @@
+package com.lwb.easy.excel.enums;
+
+import static com.lwb.easy.excel.constant.Constant.*;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+
+    /**
+     * excel文件
+     */
+    XLSX(XLSX_SUFFIX, (char) 0),
+    /**
+     * 逗号分隔的文本文件
+     */
+    CSV(CSV_SUFFIX, ','),
+    /**
+     * 制表符分隔的文本文件
+     */
+    TSV(TSV_SUFFIX, '\t');
+
+    /**
+     * 文件后缀
+     */
+    private final String suffix;
+    /**
+     * 文本文件的分隔符
+     */
+    private final char separator;
+
+    ExportFormat(String suffix, char separator) {
+        this.suffix = suffix;
+        this.separator = separator;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    /**
+     * 根据文件后缀获取文件格式
+     * @param suffix 文件后缀
+     * @return 文件格式，没有匹配的后缀时返回XLSX
+     */
+    public static ExportFormat ofSuffix(String suffix) {
+        for (ExportFormat format : values()) {
+            if (format.suffix.equalsIgnoreCase(suffix)) {
+                return format;
+            }
+        }
+        return XLSX;
+    }
+}
@@ -0,0 +1,25 @@
+package com.lwb.easy.excel.enums;
+
+/**
+ * 导出阶段
+ */
+public enum ExportStage {
+
+    /**
+     * 获取导出配置，包括定位导出方法和解析yml
+     */
+    CONFIG,
+    /**
+     * 将数据行写入SXSSF excel，只有POI引擎的xlsx有此阶段
+     */
+    RENDER,
+    /**
+     * 将文件内容写入输出流（临时文件或响应流）；csv和原生引擎的xlsx在此阶段边生成边写入
+     */
+    WRITE,
+    /**
+     * 将已保存的临时文件传输给客户端
+     */
+    DOWNLOAD
+
+}
@@ -0,0 +1,25 @@
+package com.lwb.easy.excel.enums;
+
+/**
+ * 异步导出任务状态
+ */
+public enum ExportStatus {
+
+    /**
+     * 排队等待执行
+     */
+    QUEUED,
+    /**
+     * 正在生成excel
+     */
+    RUNNING,
+    /**
+     * 已生成，可以下载
+     */
+    DONE,
+    /**
+     * 生成失败
+     */
+    FAILED
+
+}
@@ -7,6 +7,10 @@ package com.lwb.easy.excel.enums;
  */
 public enum FileType {
 
-    YML,FREEMARKER
+    YML,FREEMARKER,
+    /**
+     * 数据类字段上的ExcelColumn注解，编译时生成配置，Export#value为导出文件名
+     */
+    ANNOTATION
 
 }
@@ -0,0 +1,103 @@
+package com.lwb.easy.excel.job;
+
+import com.lwb.easy.excel.enums.ExportStatus;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步导出任务
+ * </p>
+ * 记录任务的状态和进度，状态由执行线程更新，查询线程读取
+ */
+public class ExportJob {
+
+    /**
+     * 任务id
+     */
+    private final String id;
+    /**
+     * 任务创建时间
+     */
+    private final long createTime;
+    /**
+     * 已写入的数据行数
+     */
+    private final AtomicLong rowsWritten = new AtomicLong();
+    /**
+     * 任务状态
+     */
+    private volatile ExportStatus status = ExportStatus.QUEUED;
+    /**
+     * 生成的临时文件名，任务完成后才有值
+     */
+    private volatile String fileName;
+    /**
+     * 失败原因
+     */
+    private volatile String errorMessage;
+    /**
+     * 任务结束时间
+     */
+    private volatile long finishTime;
+
+    ExportJob(String id) {
+        this.id = id;
+        this.createTime = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public ExportStatus getStatus() {
+        return status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public long getFinishTime() {
+        return finishTime;
+    }
+
+    /**
+     * 任务是否已结束（成功或失败）
+     */
+    public boolean isFinished() {
+        return status == ExportStatus.DONE || status == ExportStatus.FAILED;
+    }
+
+    void running() {
+        status = ExportStatus.RUNNING;
+    }
+
+    void rowWritten() {
+        // 只有执行线程写入，lazySet避免每行一次内存屏障
+        rowsWritten.lazySet(rowsWritten.get() + 1);
+    }
+
+    void done(String fileName) {
+        this.fileName = fileName;
+        this.finishTime = System.currentTimeMillis();
+        this.status = ExportStatus.DONE;
+    }
+
+    void failed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.finishTime = System.currentTimeMillis();
+        this.status = ExportStatus.FAILED;
+    }
+}
@@ -0,0 +1,190 @@
+package com.lwb.easy.excel.job;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lwb.easy.excel.ExcelConfig;
+import com.lwb.easy.excel.ExcelUtil;
+import com.lwb.easy.excel.enums.ExportStatus;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 异步导出任务管理
+ * </p>
+ * 提交后立即返回任务id，excel在有界线程池中生成，调用方轮询任务状态，完成后再下载。
+ * 同时执行的任务数和排队数都有上限，超过后拒绝提交，避免突发的导出请求拖垮应用
+ */
+public class ExportJobManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportJobManager.class);
+
+    /**
+     * 已结束的任务保留时长，超过后清理
+     */
+    private static final long FINISHED_JOB_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static volatile ExportJobManager DEFAULT;
+
+    private final ExecutorService executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param concurrency   同时执行的任务数
+     * @param queueCapacity 排队的任务数
+     */
+    public ExportJobManager(int concurrency, int queueCapacity) {
+        this(new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            new ThreadFactoryBuilder().setNameFormat("excel-export-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.AbortPolicy()
+        ));
+    }
+
+    /**
+     * @param executor 执行导出任务的线程池，应当是有界的
+     */
+    public ExportJobManager(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 默认的任务管理，并发数为cpu核数的一半，最多排队100个任务
+     * @return 任务管理
+     */
+    public static ExportJobManager getDefault() {
+        ExportJobManager manager = DEFAULT;
+        if (manager == null) {
+            synchronized (ExportJobManager.class) {
+                manager = DEFAULT;
+                if (manager == null) {
+                    manager = new ExportJobManager(Math.max(1, Runtime.getRuntime().availableProcessors() >> 1), 100);
+                    DEFAULT = manager;
+                }
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * 提交导出任务
+     * @param config excel配置
+     * @param data   数据获取函数，在执行线程中调用，可在其中查询数据
+     * @return 任务id
+     */
+    public String submit(ExcelConfig config, Supplier<? extends Iterator<?>> data) {
+        evictFinishedJobs();
+        ExportJob job = new ExportJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, config, data));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ExcelException("导出任务过多，请稍后再试", e);
+        }
+        return job.getId();
+    }
+
+    /**
+     * 查询导出任务
+     * @param jobId 任务id
+     * @return 任务，不存在或已被清理时抛出异常
+     */
+    public ExportJob getJob(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ExcelException(String.format("导出任务%s不存在", jobId));
+        }
+        return job;
+    }
+
+    /**
+     * 下载已完成任务生成的excel，传输到文件末尾后任务被移除
+     * </p>
+     * 传输中断或只下载了部分内容时保留任务，客户端可以重试或断点续传
+     * @param jobId    任务id
+     * @param request  请求
+     * @param response 响应
+     */
+    public void download(String jobId, HttpServletRequest request, HttpServletResponse response) {
+        ExportJob job = getJob(jobId);
+        if (job.getStatus() != ExportStatus.DONE) {
+            throw new ExcelException(String.format("导出任务%s未完成，当前状态：%s", jobId, job.getStatus()));
+        }
+        if (ExcelUtil.downloadFile(job.getFileName(), request, response)) {
+            jobs.remove(jobId);
+        }
+    }
+
+    /**
+     * 关闭任务管理，不再接受新任务
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(ExportJob job, ExcelConfig config, Supplier<? extends Iterator<?>> data) {
+        job.running();
+        try {
+            Iterator<?> rows = data.get();
+            job.done(ExcelUtil.save(rows == null ? null : new ProgressIterator<>(rows, job), config));
+        } catch (Throwable e) {
+            // Error也要结束任务，否则任务一直处于执行中
+            LOGGER.error(e.getMessage(), e);
+            job.failed(e.getMessage());
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    /**
+     * 清理已结束超过保留时长的任务
+     */
+    private void evictFinishedJobs() {
+        long expireTime = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MILLIS;
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishTime() < expireTime);
+    }
+
+    /**
+     * 统计已写入行数的迭代器
+     */
+    private static class ProgressIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> delegate;
+        private final ExportJob job;
+
+        ProgressIterator(Iterator<T> delegate, ExportJob job) {
+            this.delegate = delegate;
+            this.job = job;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            T next = delegate.next();
+            job.rowWritten();
+            return next;
+        }
+    }
+}
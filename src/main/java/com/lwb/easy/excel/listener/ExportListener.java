@@ -0,0 +1,71 @@
+package com.lwb.easy.excel.listener;
+
+import com.lwb.easy.excel.enums.ExportStage;
+
+/**
+ * 导出监听器
+ * </p>
+ * 通过ExcelSettings#setListener注册，在导出线程中同步回调，实现需要线程安全且足够轻量，不要抛出异常。
+ * 回调中的name为导出配置的fileName
+ */
+public interface ExportListener {
+
+    /**
+     * 不做任何处理的监听器，默认使用
+     */
+    ExportListener NOOP = new ExportListener() {
+    };
+
+    /**
+     * 导出阶段完成
+     * @param name  导出名称
+     * @param stage 导出阶段
+     * @param nanos 耗时，单位纳秒
+     */
+    default void stageCompleted(String name, ExportStage stage, long nanos) {
+    }
+
+    /**
+     * 导出阶段失败
+     * @param name  导出名称
+     * @param stage 导出阶段
+     * @param cause 失败原因
+     */
+    default void stageFailed(String name, ExportStage stage, Throwable cause) {
+    }
+
+    /**
+     * 数据行写入完成
+     * @param name  导出名称
+     * @param rows  数据行数，不含表头
+     * @param cells 单元格数，即数据行数乘以列数
+     */
+    default void rowsWritten(String name, long rows, long cells) {
+    }
+
+    /**
+     * 文件内容写出完成
+     * @param name  导出名称
+     * @param stage WRITE为生成的文件大小，DOWNLOAD为传输的字节数
+     * @param bytes 字节数
+     */
+    default void bytesWritten(String name, ExportStage stage, long bytes) {
+    }
+
+    /**
+     * SXSSF临时文件占用的磁盘空间，在临时文件删除前回调
+     * @param name  导出名称
+     * @param bytes 字节数
+     */
+    default void tempFilesUsed(String name, long bytes) {
+    }
+
+    /**
+     * 内部线程池的状态，在向线程池提交任务后回调
+     * @param executor    线程池名称
+     * @param activeCount 正在执行任务的线程数
+     * @param queueSize   排队的任务数
+     */
+    default void executorState(String executor, int activeCount, int queueSize) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.lwb.easy.excel.listener;
+
+import com.lwb.easy.excel.enums.ExportStage;
+
+/**
+ * 将导出事件转换成指标的监听器
+ * </p>
+ * 指标名称：
+ * <pre>
+ * easy.excel.export.stage       阶段耗时（timer），tags：name、stage
+ * easy.excel.export.failures    阶段失败次数（counter），tags：name、stage
+ * easy.excel.export.rows        数据行数（summary），tags：name
+ * easy.excel.export.cells       单元格数（summary），tags：name
+ * easy.excel.export.bytes       输出字节数（summary），tags：name、stage
+ * easy.excel.export.temp.bytes  SXSSF临时文件字节数（summary），tags：name
+ * easy.excel.executor.active    线程池活动线程数（gauge），tags：executor
+ * easy.excel.executor.queued    线程池排队任务数（gauge），tags：executor
+ * </pre>
+ */
+public class MetricsExportListener implements ExportListener {
+
+    private static final String PREFIX = "easy.excel.";
+    private static final String NAME = "name";
+    private static final String STAGE = "stage";
+    private static final String EXECUTOR = "executor";
+
+    private final MetricsRecorder recorder;
+
+    public MetricsExportListener(MetricsRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void stageCompleted(String name, ExportStage stage, long nanos) {
+        recorder.timer(PREFIX + "export.stage", nanos, NAME, name, STAGE, stage.name());
+    }
+
+    @Override
+    public void stageFailed(String name, ExportStage stage, Throwable cause) {
+        recorder.counter(PREFIX + "export.failures", 1, NAME, name, STAGE, stage.name());
+    }
+
+    @Override
+    public void rowsWritten(String name, long rows, long cells) {
+        recorder.summary(PREFIX + "export.rows", rows, NAME, name);
+        recorder.summary(PREFIX + "export.cells", cells, NAME, name);
+    }
+
+    @Override
+    public void bytesWritten(String name, ExportStage stage, long bytes) {
+        recorder.summary(PREFIX + "export.bytes", bytes, NAME, name, STAGE, stage.name());
+    }
+
+    @Override
+    public void tempFilesUsed(String name, long bytes) {
+        recorder.summary(PREFIX + "export.temp.bytes", bytes, NAME, name);
+    }
+
+    @Override
+    public void executorState(String executor, int activeCount, int queueSize) {
+        recorder.gauge(PREFIX + "executor.active", activeCount, EXECUTOR, executor);
+        recorder.gauge(PREFIX + "executor.queued", queueSize, EXECUTOR, executor);
+    }
+}
@@ -0,0 +1,36 @@
+package com.lwb.easy.excel.listener;
+
+/**
+ * 指标记录器
+ * </p>
+ * 对监控系统的最小抽象，避免依赖具体的监控库。以Micrometer为例：
+ * <pre>
+ * timer   -&gt; registry.timer(name, tags).record(nanos, TimeUnit.NANOSECONDS)
+ * summary -&gt; DistributionSummary.builder(name).tags(tags).register(registry).record(amount)
+ * counter -&gt; registry.counter(name, tags).increment(amount)
+ * gauge   -&gt; 以name和tags为key保存AtomicLong，首次使用时registry.gauge(name, Tags.of(tags), value)
+ * </pre>
+ * tags为key、value交替的数组
+ */
+public interface MetricsRecorder {
+
+    /**
+     * 记录耗时
+     */
+    void timer(String name, long nanos, String... tags);
+
+    /**
+     * 记录数量分布，例如行数、字节数
+     */
+    void summary(String name, long amount, String... tags);
+
+    /**
+     * 累加计数
+     */
+    void counter(String name, long amount, String... tags);
+
+    /**
+     * 记录当前值
+     */
+    void gauge(String name, double value, String... tags);
+}
@@ -0,0 +1,386 @@
+package com.lwb.easy.excel.processor;
+
+import com.lwb.easy.excel.annotation.ExcelColumn;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ExcelColumn注解处理器
+ * </p>
+ * 为每个包含ExcelColumn字段的类生成RowWriter实现，类名为 类名 + ExcelWriter，与数据类在同一个包下。
+ * 表头、合并规则在编译时计算，取值优先调用getter，没有getter时直接访问非private字段，
+ * 类或字段上有lombok的Data、Getter、Value注解时按lombok的命名规则调用getter。
+ * 未注册到META-INF/services，需要在编译参数或maven-compiler-plugin的annotationProcessors中指定
+ */
+@SupportedAnnotationTypes("com.lwb.easy.excel.annotation.ExcelColumn")
+public class ExcelColumnProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "ExcelWriter";
+    private static final String JSON_FORMAT = "com.fasterxml.jackson.annotation.JsonFormat";
+    private static final Set<String> LOMBOK_GETTERS =
+        new HashSet<>(Arrays.asList("lombok.Data", "lombok.Getter", "lombok.Value"));
+
+    /**
+     * 已生成的类，多轮处理时不重复生成
+     */
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> types = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(ExcelColumn.class)) {
+            if (element.getKind() == ElementKind.FIELD) {
+                types.computeIfAbsent((TypeElement) element.getEnclosingElement(), t -> new ArrayList<>())
+                    .add((VariableElement) element);
+            }
+        }
+        types.forEach((type, fields) -> {
+            if (generated.add(type.getQualifiedName().toString())) {
+                generate(type, fields);
+            }
+        });
+        return true;
+    }
+
+    private void generate(TypeElement type, List<VariableElement> fields) {
+        if (!isAccessible(type)) {
+            error(type, "标注了ExcelColumn的类及其外部类不能是private的，嵌套类必须是static的");
+            return;
+        }
+        List<Column> columns = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            String getter = getterExpression(type, field);
+            if (getter == null) {
+                error(field, String.format("字段%s没有getter，也不能直接访问", field.getSimpleName()));
+                return;
+            }
+            columns.add(new Column(field, i, getter));
+        }
+        columns.sort(Comparator.comparingInt((Column column) -> column.order).thenComparingInt(column -> column.index));
+
+        HeaderLayout layout = new HeaderLayout(columns);
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String writerName = binaryName(type).replace('$', '_') + SUFFIX;
+        String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * ").append(typeName).append("的RowWriter，由ExcelColumnProcessor生成，不要修改\n */\n")
+            .append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+            .append("public final class ").append(writerName)
+            .append(" implements com.lwb.easy.excel.RowWriter<").append(typeName).append("> {\n\n")
+            .append("    private static final String[][] HEADERS = ").append(literal(layout.names)).append(";\n")
+            .append("    private static final String[][] MERGE_INDEXES = ").append(literal(layout.mergeIndexes)).append(";\n")
+            .append("    private static final String[] FIELDS = ")
+            .append(literal(columns.stream().map(column -> column.field.getSimpleName().toString()).toArray(String[]::new)))
+            .append(";\n")
+            .append("    private static final String[] FORMATS = ")
+            .append(literal(columns.stream().map(column -> column.format).toArray(String[]::new)))
+            .append(";\n\n");
+        method(source, "String[][]", "getHeaders", "HEADERS");
+        method(source, "String[][]", "getMergeIndexes", "MERGE_INDEXES");
+        method(source, "String[]", "getFields", "FIELDS");
+        method(source, "String[]", "getFormats", "FORMATS");
+        source.append("    @Override\n")
+            .append("    public Object get(").append(typeName).append(" row, int column) {\n")
+            .append("        switch (column) {\n");
+        for (int i = 0; i < columns.size(); i++) {
+            source.append("            case ").append(i).append(":\n")
+                .append("                return row.").append(columns.get(i).getter).append(";\n");
+        }
+        source.append("            default:\n")
+            .append("                throw new IndexOutOfBoundsException(String.valueOf(column));\n")
+            .append("        }\n")
+            .append("    }\n")
+            .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? writerName : packageName + "." + writerName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(type, String.format("生成%s失败：%s", qualifiedName, e.getMessage()));
+        }
+    }
+
+    /**
+     * 取值表达式：优先调用getter，其次直接访问字段
+     * @return 表达式，无法取值时为null
+     */
+    private String getterExpression(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        boolean primitiveBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+        String getter = getterName(name, primitiveBoolean);
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(getter)
+                && method.getParameters().isEmpty()
+                && !method.getModifiers().contains(Modifier.PRIVATE)
+                && !method.getModifiers().contains(Modifier.STATIC)) {
+                return getter + "()";
+            }
+        }
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return name;
+        }
+        // lombok生成的getter在注解处理时可能还不可见
+        if (hasLombokGetter(type) || hasLombokGetter(field)) {
+            return getter + "()";
+        }
+        return null;
+    }
+
+    /**
+     * getter名称，规则同lombok：boolean字段为is前缀，字段名已是isXxx时不再加前缀
+     */
+    private static String getterName(String name, boolean primitiveBoolean) {
+        if (primitiveBoolean && name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+            return name;
+        }
+        return (primitiveBoolean ? "is" : "get") + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static boolean hasLombokGetter(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (LOMBOK_GETTERS.contains(mirror.getAnnotationType().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成类需要能访问数据类：数据类及外部类都不是private的，嵌套类是static的
+     */
+    private static boolean isAccessible(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            TypeElement typeElement = (TypeElement) element;
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (typeElement.getNestingKind() == NestingKind.MEMBER && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            element = typeElement.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * 不含包名的二进制类名，嵌套类用$分隔
+     */
+    private String binaryName(TypeElement type) {
+        String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.isUnnamed() ? name : name.substring(packageElement.getQualifiedName().length() + 1);
+    }
+
+    /**
+     * 字段上JsonFormat注解的pattern
+     */
+    private static String jsonFormatPattern(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().toString().equals(JSON_FORMAT)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("pattern")) {
+                    String pattern = String.valueOf(entry.getValue().getValue());
+                    return pattern.isEmpty() ? null : pattern;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void method(StringBuilder source, String returnType, String name, String constant) {
+        source.append("    @Override\n")
+            .append("    public ").append(returnType).append(' ').append(name).append("() {\n")
+            .append("        return ").append(constant).append(";\n")
+            .append("    }\n\n");
+    }
+
+    private static String literal(String[][] values) {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(literal(values[i]));
+        }
+        return builder.append('}').toString();
+    }
+
+    private static String literal(String[] values) {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(literal(values[i]));
+        }
+        return builder.append('}').toString();
+    }
+
+    private static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    // 非ASCII字符转义，生成的源文件与编译编码无关
+                    if (c < 0x20 || c > 0x7e) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * 导出列
+     */
+    private static final class Column {
+
+        private final VariableElement field;
+        /**
+         * 字段声明顺序
+         */
+        private final int index;
+        private final int order;
+        private final String getter;
+        /**
+         * 表头名称，从上到下
+         */
+        private final String[] names;
+        private final String format;
+
+        private Column(VariableElement field, int index, String getter) {
+            ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+            this.field = field;
+            this.index = index;
+            this.order = column.order();
+            this.getter = getter;
+            this.names = column.value().length == 0 ? new String[]{field.getSimpleName().toString()} : column.value();
+            this.format = column.format().isEmpty() ? jsonFormatPattern(field) : column.format();
+        }
+    }
+
+    /**
+     * 表头布局
+     * </p>
+     * 表头行数为各列名称数的最大值，名称少于行数的列最后一个名称向下合并；
+     * 同一行相邻列的上级表头名称及其上级名称都相同时横向合并
+     */
+    private static final class HeaderLayout {
+
+        private final String[][] names;
+        private final String[][] mergeIndexes;
+
+        private HeaderLayout(List<Column> columns) {
+            int rows = 1;
+            for (Column column : columns) {
+                rows = Math.max(rows, column.names.length);
+            }
+            int size = columns.size();
+            names = new String[rows][size];
+            mergeIndexes = new String[rows][size];
+            for (String[] row : names) {
+                Arrays.fill(row, "");
+            }
+            for (int r = 0; r < rows; r++) {
+                int c = 0;
+                while (c < size) {
+                    Column column = columns.get(c);
+                    if (r >= column.names.length) {
+                        // 被上方的名称向下合并覆盖
+                        c++;
+                        continue;
+                    }
+                    int lastRow = r == column.names.length - 1 ? rows - 1 : r;
+                    int lastColumn = c;
+                    while (lastColumn + 1 < size && sameCell(column, columns.get(lastColumn + 1), r)) {
+                        lastColumn++;
+                    }
+                    names[r][c] = column.names[r];
+                    if (lastRow > r || lastColumn > c) {
+                        mergeIndexes[r][c] = r + "," + lastRow + "," + c + "," + lastColumn;
+                    }
+                    c = lastColumn + 1;
+                }
+            }
+        }
+
+        /**
+         * 两列在第row行的表头是否是同一个单元格
+         */
+        private static boolean sameCell(Column left, Column right, int row) {
+            if (right.names.length <= row) {
+                return false;
+            }
+            // 只合并上级表头，最后一级名称相同的两列仍是不同的列
+            if (row >= left.names.length - 1 || row >= right.names.length - 1) {
+                return false;
+            }
+            for (int r = 0; r <= row; r++) {
+                if (!left.names[r].equals(right.names[r])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
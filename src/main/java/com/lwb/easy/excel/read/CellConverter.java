@@ -0,0 +1,159 @@
+package com.lwb.easy.excel.read;
+
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.lwb.easy.excel.constant.Constant.*;
+
+/**
+ * 单元格文本转换成字段类型
+ * </p>
+ * 日期依次按字段上JsonFormat注解的格式、yyyy-MM-dd HH:mm:ss、yyyy-MM-dd解析，
+ * 都不匹配时按excel日期序列号解析
+ */
+final class CellConverter {
+
+    private static final LocalDateTime EXCEL_EPOCH = LocalDate.of(1899, 12, 30).atStartOfDay();
+    private static final double MILLIS_PER_DAY = 86_400_000D;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM_SS);
+
+    /**
+     * 按格式缓存的日期解析器，DateTimeFormatter是线程安全的
+     */
+    private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    private CellConverter() {
+    }
+
+    /**
+     * 转换单元格文本
+     * @param text    单元格文本，可为null
+     * @param type    字段类型
+     * @param pattern 日期、数字格式，可为null
+     * @return 字段值，空单元格为null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object convert(String text, Class<?> type, String pattern) {
+        if (text == null || type == String.class || type == Object.class) {
+            return text;
+        }
+        String value = text.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (type == Integer.class || type == int.class) {
+                return new BigDecimal(value).intValueExact();
+            } else if (type == Long.class || type == long.class) {
+                return new BigDecimal(value).longValueExact();
+            } else if (type == Double.class || type == double.class) {
+                return Double.valueOf(value);
+            } else if (type == Float.class || type == float.class) {
+                return Float.valueOf(value);
+            } else if (type == Short.class || type == short.class) {
+                return new BigDecimal(value).shortValueExact();
+            } else if (type == Byte.class || type == byte.class) {
+                return new BigDecimal(value).byteValueExact();
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            } else if (type == BigInteger.class) {
+                return new BigDecimal(value).toBigIntegerExact();
+            } else if (type == Boolean.class || type == boolean.class) {
+                return toBoolean(value);
+            } else if (type == Character.class || type == char.class) {
+                return value.charAt(0);
+            } else if (type == LocalDateTime.class) {
+                return toDateTime(value, pattern);
+            } else if (type == LocalDate.class) {
+                return toDateTime(value, pattern).toLocalDate();
+            } else if (type == LocalTime.class) {
+                return toDateTime(value, pattern).toLocalTime();
+            } else if (type == Date.class) {
+                return Date.from(toDateTime(value, pattern).atZone(ZoneId.systemDefault()).toInstant());
+            } else if (type.isEnum()) {
+                return Enum.valueOf((Class<? extends Enum>) type, value);
+            }
+        } catch (ExcelException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ExcelException(String.format("无法将%s转换成%s", text, type.getSimpleName()), e);
+        }
+        throw new ExcelException(String.format("不支持的字段类型%s", type.getName()));
+    }
+
+    /**
+     * excel日期序列号转换成日期，精确到毫秒
+     */
+    static LocalDateTime fromExcelDate(double serial) {
+        return EXCEL_EPOCH.plus(Math.round(serial * MILLIS_PER_DAY), ChronoUnit.MILLIS);
+    }
+
+    static String formatDateTime(LocalDateTime dateTime) {
+        return DATE_TIME_FORMATTER.format(dateTime);
+    }
+
+    private static Boolean toBoolean(String value) {
+        if ("true".equalsIgnoreCase(value) || "1".equals(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(value) || "0".equals(value)) {
+            return Boolean.FALSE;
+        }
+        throw new ExcelException(String.format("无法将%s转换成Boolean", value));
+    }
+
+    private static LocalDateTime toDateTime(String value, String pattern) {
+        if (StringUtils.isNotEmpty(pattern)) {
+            LocalDateTime dateTime = parse(value, pattern);
+            if (dateTime != null) {
+                return dateTime;
+            }
+        }
+        LocalDateTime dateTime = parse(value, YYYY_MM_DD_HH_MM_SS);
+        if (dateTime == null) {
+            dateTime = parse(value, YYYY_MM_DD);
+        }
+        if (dateTime == null) {
+            try {
+                dateTime = fromExcelDate(Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                throw new ExcelException(String.format("无法将%s转换成日期", value), e);
+            }
+        }
+        return dateTime;
+    }
+
+    /**
+     * 按格式解析日期，只有日期或只有时间的格式也可以解析
+     * @return 日期，格式不匹配时为null
+     */
+    private static LocalDateTime parse(String value, String pattern) {
+        DateTimeFormatter formatter = FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+        try {
+            TemporalAccessor temporal = formatter.parseBest(value, LocalDateTime::from, LocalDate::from, LocalTime::from);
+            if (temporal instanceof LocalDateTime) {
+                return (LocalDateTime) temporal;
+            }
+            if (temporal instanceof LocalDate) {
+                return ((LocalDate) temporal).atStartOfDay();
+            }
+            return EXCEL_EPOCH.with((LocalTime) temporal);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.lwb.easy.excel.read;
+
+import com.lwb.easy.excel.ExcelConfig;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.commons.collections4.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * excel导入工具类
+ * </p>
+ * 使用与导出相同的ExcelConfig：跳过headers配置的表头行，第i列按fields中的第i个字段转换。
+ * 基于SAX逐行解析，数据按批次回调，内存占用与文件大小无关，适用于大文件导入
+ */
+public final class ExcelReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExcelReader.class);
+
+    /**
+     * 默认每批回调的行数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private ExcelReader() {
+    }
+
+    /**
+     * 读取excel
+     * @param in       excel输入流，由调用方负责关闭
+     * @param type     行数据类型，可以是Map
+     * @param config   excel配置，可通过ExcelConfigRegistry获取
+     * @param consumer 批次处理函数
+     */
+    public static <T> void read(InputStream in, Class<T> type, ExcelConfig config, Consumer<List<T>> consumer) {
+        read(in, type, config, DEFAULT_BATCH_SIZE, consumer);
+    }
+
+    /**
+     * 读取excel
+     * </p>
+     * 输入流先写入临时文件再解析，避免整个文件被读入内存，解析完成后删除临时文件
+     * @param in        excel输入流，由调用方负责关闭
+     * @param type      行数据类型，可以是Map
+     * @param config    excel配置
+     * @param batchSize 每批回调的行数
+     * @param consumer  批次处理函数
+     */
+    public static <T> void read(InputStream in, Class<T> type, ExcelConfig config, int batchSize, Consumer<List<T>> consumer) {
+        Path file = spool(in);
+        try {
+            read(file.toFile(), type, config, batchSize, consumer);
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * 读取excel
+     * @param file     excel文件
+     * @param type     行数据类型，可以是Map
+     * @param config   excel配置
+     * @param consumer 批次处理函数
+     */
+    public static <T> void read(File file, Class<T> type, ExcelConfig config, Consumer<List<T>> consumer) {
+        read(file, type, config, DEFAULT_BATCH_SIZE, consumer);
+    }
+
+    /**
+     * 读取excel
+     * @param file      excel文件
+     * @param type      行数据类型，可以是Map
+     * @param config    excel配置
+     * @param batchSize 每批回调的行数
+     * @param consumer  批次处理函数，回调的列表不会再被修改，可以直接保存
+     */
+    public static <T> void read(File file, Class<T> type, ExcelConfig config, int batchSize, Consumer<List<T>> consumer) {
+        checkBatchSize(batchSize);
+        List<String> fields = getFields(config);
+        RowMapper<T> mapper = new RowMapper<>(type, fields);
+        List<T> batch = new ArrayList<>(batchSize);
+        XlsxSaxParser.parse(file, fields.size(), getHeaderRows(config), row -> {
+            batch.add(mapper.map(row));
+            if (batch.size() >= batchSize) {
+                consumer.accept(new ArrayList<>(batch));
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+
+    /**
+     * 导入使用的字段
+     */
+    static List<String> getFields(ExcelConfig config) {
+        if (CollectionUtils.isEmpty(config.getFields())) {
+            throw new ExcelException("导入excel配置的fields不能为空");
+        }
+        return config.getFields();
+    }
+
+    /**
+     * 每个sheet的表头行数
+     */
+    static int getHeaderRows(ExcelConfig config) {
+        return config.getHeaders() == null ? 0 : config.getHeaders().size();
+    }
+
+    static void checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new ExcelException("batchSize必须大于0");
+        }
+    }
+
+    /**
+     * 输入流写入临时文件
+     */
+    static Path spool(InputStream in) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("excel-import", ".xlsx");
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            LOGGER.error(e.getMessage(), e);
+            throw new ExcelException(e.getMessage(), e);
+        }
+    }
+
+    static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("failed to delete temp file {}", file, e);
+        }
+    }
+}
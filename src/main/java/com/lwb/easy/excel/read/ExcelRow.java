@@ -0,0 +1,40 @@
+package com.lwb.easy.excel.read;
+
+/**
+ * 解析出的一行原始数据
+ * </p>
+ * 单元格值按字段下标存放，尚未转换成字段类型
+ */
+final class ExcelRow {
+
+    /**
+     * sheet下标，从0开始
+     */
+    private final int sheetIndex;
+    /**
+     * 行号，与excel中显示的一致，从1开始
+     */
+    private final int rowNum;
+    /**
+     * 单元格文本，空单元格为null
+     */
+    private final String[] values;
+
+    ExcelRow(int sheetIndex, int rowNum, String[] values) {
+        this.sheetIndex = sheetIndex;
+        this.rowNum = rowNum;
+        this.values = values;
+    }
+
+    int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    int getRowNum() {
+        return rowNum;
+    }
+
+    String[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,32 @@
+package com.lwb.easy.excel.read;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * 并行导入参数
+ */
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportOptions {
+
+    /**
+     * 每批的行数
+     */
+    int batchSize = ExcelReader.DEFAULT_BATCH_SIZE;
+    /**
+     * 已解析、尚未处理完的批次上限，达到后解析线程阻塞等待，内存占用约为 batchSize * maxPendingBatches 行
+     */
+    int maxPendingBatches = 16;
+    /**
+     * 是否按文件中的顺序调用批次处理函数
+     * </p>
+     * 有序时批次处理函数串行调用；无序时在多个线程中并发调用，需要线程安全
+     */
+    boolean ordered = false;
+    /**
+     * 允许的转换失败行数，超过后终止导入
+     */
+    int maxErrors = 100;
+}
@@ -0,0 +1,44 @@
+package com.lwb.easy.excel.read;
+
+import java.util.List;
+
+/**
+ * 导入结果
+ */
+public class ImportResult {
+
+    /**
+     * 解析出的数据行数，不含表头和空行
+     */
+    private final long totalRows;
+    /**
+     * 转换成功并交给批次处理函数的行数
+     */
+    private final long successRows;
+    /**
+     * 转换失败的行，按sheet和行号排序
+     */
+    private final List<RowError> errors;
+
+    ImportResult(long totalRows, long successRows, List<RowError> errors) {
+        this.totalRows = totalRows;
+        this.successRows = successRows;
+        this.errors = errors;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getSuccessRows() {
+        return successRows;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
@@ -0,0 +1,286 @@
+package com.lwb.easy.excel.read;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lwb.easy.excel.ExcelConfig;
+import com.lwb.easy.excel.exception.ExcelException;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 并行excel导入
+ * </p>
+ * 调用线程用SAX解析文件，原始数据按批次交给线程池转换成对象，再交给批次处理函数（例如校验、入库）。
+ * 未处理完的批次数有上限，处理跟不上解析时解析线程阻塞，内存占用有界。
+ * 转换失败的行记录下来继续导入，批次处理函数抛出异常时终止导入
+ */
+public class ParallelExcelReader {
+
+    private final ExecutorService executor;
+
+    /**
+     * @param threads 转换、处理批次的线程数
+     */
+    public ParallelExcelReader(int threads) {
+        // 排队的批次数由每次导入的maxPendingBatches限制，这里不再限制队列长度
+        this(new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("excel-import-%d").setDaemon(true).build()
+        ));
+    }
+
+    /**
+     * @param executor 转换、处理批次的线程池，可在多个导入间共享
+     */
+    public ParallelExcelReader(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 读取excel
+     * @param in      excel输入流，先写入临时文件再解析，由调用方负责关闭
+     * @param type    行数据类型，可以是Map
+     * @param config  excel配置
+     * @param options 导入参数
+     * @param sink    批次处理函数
+     * @return 导入结果
+     */
+    public <T> ImportResult read(InputStream in, Class<T> type, ExcelConfig config, ImportOptions options, Consumer<List<T>> sink) {
+        Path file = ExcelReader.spool(in);
+        try {
+            return read(file.toFile(), type, config, options, sink);
+        } finally {
+            ExcelReader.deleteQuietly(file);
+        }
+    }
+
+    /**
+     * 读取excel，所有批次处理完后返回
+     * @param file    excel文件
+     * @param type    行数据类型，可以是Map
+     * @param config  excel配置
+     * @param options 导入参数
+     * @param sink    批次处理函数，转换全部失败的批次不回调
+     * @return 导入结果
+     */
+    public <T> ImportResult read(File file, Class<T> type, ExcelConfig config, ImportOptions options, Consumer<List<T>> sink) {
+        ExcelReader.checkBatchSize(options.getBatchSize());
+        if (options.getMaxPendingBatches() <= 0) {
+            throw new ExcelException("maxPendingBatches必须大于0");
+        }
+        List<String> fields = ExcelReader.getFields(config);
+        ImportTask<T> task = new ImportTask<>(new RowMapper<>(type, fields), options, sink);
+        task.run(file, fields.size(), ExcelReader.getHeaderRows(config));
+        return task.result();
+    }
+
+    /**
+     * 关闭线程池
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 一次导入的状态
+     */
+    private class ImportTask<T> {
+
+        private final RowMapper<T> mapper;
+        private final ImportOptions options;
+        private final Consumer<List<T>> sink;
+        /**
+         * 未处理完的批次许可，有序时批次交给处理函数后才释放
+         */
+        private final Semaphore pending;
+        private final AtomicLong totalRows = new AtomicLong();
+        private final AtomicLong successRows = new AtomicLong();
+        private final AtomicInteger errorCount = new AtomicInteger();
+        private final ConcurrentLinkedQueue<RowError> errors = new ConcurrentLinkedQueue<>();
+        /**
+         * 有序时等待按顺序处理的批次
+         */
+        private final Map<Long, List<T>> completed = new TreeMap<>();
+        private long nextSequence;
+        private boolean draining;
+        private volatile Throwable failure;
+
+        ImportTask(RowMapper<T> mapper, ImportOptions options, Consumer<List<T>> sink) {
+            this.mapper = mapper;
+            this.options = options;
+            this.sink = sink;
+            this.pending = new Semaphore(options.getMaxPendingBatches());
+        }
+
+        void run(File file, int columns, int headerRows) {
+            int batchSize = options.getBatchSize();
+            List<ExcelRow> batch = new ArrayList<>(batchSize);
+            long[] sequence = {0};
+            try {
+                XlsxSaxParser.parse(file, columns, headerRows, row -> {
+                    batch.add(row);
+                    if (batch.size() >= batchSize) {
+                        submit(sequence[0]++, new ArrayList<>(batch));
+                        batch.clear();
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    submit(sequence[0], new ArrayList<>(batch));
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+            } finally {
+                // 等待已提交的批次全部处理完
+                pending.acquireUninterruptibly(options.getMaxPendingBatches());
+            }
+            if (failure != null) {
+                throw failure instanceof ExcelException
+                    ? (ExcelException) failure
+                    : new ExcelException(failure.getMessage(), failure);
+            }
+        }
+
+        ImportResult result() {
+            List<RowError> rowErrors = new ArrayList<>(errors);
+            rowErrors.sort(Comparator.comparingInt(RowError::getSheetIndex).thenComparingInt(RowError::getRowNum));
+            return new ImportResult(totalRows.get(), successRows.get(), Collections.unmodifiableList(rowErrors));
+        }
+
+        /**
+         * 提交批次，未处理完的批次达到上限时阻塞；导入已失败时抛出异常终止解析
+         */
+        private void submit(long sequence, List<ExcelRow> rows) {
+            try {
+                pending.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExcelException("导入被中断", e);
+            }
+            if (failure != null) {
+                pending.release();
+                throw new ExcelException("导入已终止");
+            }
+            totalRows.addAndGet(rows.size());
+            try {
+                executor.execute(() -> process(sequence, rows));
+            } catch (RejectedExecutionException e) {
+                pending.release();
+                throw new ExcelException("导入线程池已关闭", e);
+            }
+        }
+
+        private void process(long sequence, List<ExcelRow> rows) {
+            List<T> batch;
+            try {
+                batch = convert(rows);
+            } catch (Throwable e) {
+                fail(e);
+                batch = Collections.emptyList();
+            }
+            if (options.isOrdered()) {
+                complete(sequence, batch);
+            } else {
+                try {
+                    accept(batch);
+                } finally {
+                    pending.release();
+                }
+            }
+        }
+
+        private List<T> convert(List<ExcelRow> rows) {
+            List<T> batch = new ArrayList<>(rows.size());
+            for (ExcelRow row : rows) {
+                if (failure != null) {
+                    return Collections.emptyList();
+                }
+                try {
+                    batch.add(mapper.map(row));
+                } catch (ExcelException e) {
+                    error(row, e);
+                }
+            }
+            return batch;
+        }
+
+        /**
+         * 记录转换失败的行，超过允许的行数后终止导入
+         */
+        private void error(ExcelRow row, ExcelException e) {
+            int count = errorCount.incrementAndGet();
+            if (count > options.getMaxErrors()) {
+                fail(new ExcelException(String.format("转换失败的行数超过%d，导入终止", options.getMaxErrors())));
+                return;
+            }
+            errors.add(new RowError(row.getSheetIndex(), row.getRowNum(), e.getMessage()));
+        }
+
+        /**
+         * 有序时按批次顺序交给处理函数，同一时刻只有一个线程在处理
+         */
+        private void complete(long sequence, List<T> batch) {
+            synchronized (completed) {
+                completed.put(sequence, batch);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                List<T> next;
+                synchronized (completed) {
+                    next = completed.remove(nextSequence);
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    nextSequence++;
+                }
+                try {
+                    accept(next);
+                } finally {
+                    pending.release();
+                }
+            }
+        }
+
+        private void accept(List<T> batch) {
+            if (batch.isEmpty() || failure != null) {
+                return;
+            }
+            try {
+                sink.accept(batch);
+                successRows.addAndGet(batch.size());
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.lwb.easy.excel.read;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.math.BigDecimal;
+
+/**
+ * 单元格原始值格式化
+ * </p>
+ * 默认的DataFormatter按单元格显示格式输出，会丢失精度（例如千分位、百分比、保留位数），
+ * 这里数字输出完整的原始值，日期统一输出成 yyyy-MM-dd HH:mm:ss，便于再转换成字段类型
+ */
+class RawValueFormatter extends DataFormatter {
+
+    @Override
+    public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+        if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+            return CellConverter.formatDateTime(CellConverter.fromExcelDate(value));
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
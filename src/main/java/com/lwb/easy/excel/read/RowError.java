@@ -0,0 +1,43 @@
+package com.lwb.easy.excel.read;
+
+/**
+ * 导入失败的数据行
+ */
+public class RowError {
+
+    /**
+     * sheet下标，从0开始
+     */
+    private final int sheetIndex;
+    /**
+     * 行号，与excel中显示的一致，从1开始
+     */
+    private final int rowNum;
+    /**
+     * 失败原因
+     */
+    private final String message;
+
+    RowError(int sheetIndex, int rowNum, String message) {
+        this.sheetIndex = sheetIndex;
+        this.rowNum = rowNum;
+        this.message = message;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
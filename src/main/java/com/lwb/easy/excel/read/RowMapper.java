@@ -0,0 +1,84 @@
+package com.lwb.easy.excel.read;
+
+import com.lwb.easy.excel.FieldAccessor;
+import com.lwb.easy.excel.exception.ExcelException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行数据转换器
+ * </p>
+ * 按配置中的字段顺序将一行单元格文本转换成对象，第i列对应第i个字段，与导出的规则一致。
+ * 目标类型为Map时，以字段名为key保存单元格文本
+ */
+final class RowMapper<T> {
+
+    private final Class<T> type;
+    private final List<String> fields;
+    /**
+     * 字段赋值器，目标类型为Map时为null
+     */
+    private final FieldAccessor[] accessors;
+    /**
+     * 目标类型的无参构造器，目标类型为Map时为null
+     */
+    private final MethodHandle constructor;
+
+    RowMapper(Class<T> type, List<String> fields) {
+        this.type = type;
+        this.fields = fields;
+        if (type.isAssignableFrom(LinkedHashMap.class)) {
+            this.accessors = null;
+            this.constructor = null;
+        } else {
+            this.accessors = FieldAccessor.of(type, fields);
+            try {
+                Constructor<T> declared = type.getDeclaredConstructor();
+                declared.setAccessible(true);
+                this.constructor = MethodHandles.lookup().unreflectConstructor(declared)
+                    .asType(MethodType.methodType(Object.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new ExcelException(String.format("%s没有可访问的无参构造器", type.getName()), e);
+            }
+        }
+    }
+
+    /**
+     * 转换一行数据
+     * @param row 单元格文本
+     * @return 对象
+     */
+    @SuppressWarnings("unchecked")
+    T map(ExcelRow row) {
+        String[] values = row.getValues();
+        if (accessors == null) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                map.put(fields.get(i), values[i]);
+            }
+            return (T) map;
+        }
+        Object obj;
+        try {
+            obj = (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new ExcelException(String.format("创建%s失败", type.getName()), e);
+        }
+        for (int i = 0; i < accessors.length; i++) {
+            FieldAccessor accessor = accessors[i];
+            try {
+                accessor.set(obj, CellConverter.convert(values[i], accessor.getField().getType(), accessor.getPattern()));
+            } catch (ExcelException e) {
+                throw new ExcelException(String.format("第%d个sheet第%d行第%d列（%s）：%s",
+                    row.getSheetIndex() + 1, row.getRowNum(), i + 1, accessor.getPath(), e.getMessage()), e);
+            }
+        }
+        return (T) obj;
+    }
+}
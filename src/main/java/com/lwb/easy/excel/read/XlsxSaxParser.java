@@ -0,0 +1,132 @@
+package com.lwb.easy.excel.read;
+
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * 基于SAX的xlsx解析器
+ * </p>
+ * 使用POI的事件模型逐行解析sheet的xml，解析过的行不再被引用，内存占用与文件大小无关
+ * （共享字符串表除外）。依次解析所有sheet，每个sheet都跳过表头行，与导出时按sheet拆分的规则一致
+ */
+final class XlsxSaxParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XlsxSaxParser.class);
+
+    private XlsxSaxParser() {
+    }
+
+    /**
+     * 解析xlsx文件
+     * @param file       xlsx文件
+     * @param columns    读取的列数，超出的列忽略
+     * @param headerRows 每个sheet的表头行数
+     * @param consumer   数据行处理函数，空行不回调
+     */
+    static void parse(File file, int columns, int headerRows, Consumer<ExcelRow> consumer) {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int sheetIndex = 0; sheets.hasNext(); sheetIndex++) {
+                RowHandler handler = new RowHandler(sheetIndex, columns, headerRows, consumer);
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader xmlReader = SAXHelper.newXMLReader();
+                    xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new RawValueFormatter(), false));
+                    xmlReader.parse(new InputSource(sheet));
+                }
+            }
+        } catch (RuntimeException e) {
+            // 数据行处理函数抛出的异常原样抛出
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new ExcelException(e.getMessage(), e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    /**
+     * 收集一行的单元格文本
+     */
+    private static class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int sheetIndex;
+        private final int columns;
+        private final int headerRows;
+        private final Consumer<ExcelRow> consumer;
+        private String[] values;
+        private boolean empty;
+        private int nextColumn;
+
+        RowHandler(int sheetIndex, int columns, int headerRows, Consumer<ExcelRow> consumer) {
+            this.sheetIndex = sheetIndex;
+            this.columns = columns;
+            this.headerRows = headerRows;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            values = new String[columns];
+            empty = true;
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum >= headerRows && !empty) {
+                consumer.accept(new ExcelRow(sheetIndex, rowNum + 1, values));
+            }
+            values = null;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? nextColumn : columnIndex(cellReference);
+            nextColumn = column + 1;
+            if (column < columns && StringUtils.isNotEmpty(formattedValue)) {
+                values[column] = formattedValue;
+                empty = false;
+            }
+        }
+
+        /**
+         * 单元格引用（例如：AB12）的列下标，从0开始
+         */
+        private static int columnIndex(String cellReference) {
+            int column = 0;
+            for (int i = 0; i < cellReference.length(); i++) {
+                char c = cellReference.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
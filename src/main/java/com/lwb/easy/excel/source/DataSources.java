@@ -0,0 +1,209 @@
+package com.lwb.easy.excel.source;
+
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * 导出数据源工具类
+ * </p>
+ * 将分页查询转换成按需拉取的Iterator，导出时逐页获取、逐行写入，已写入的数据不再被引用；
+ * 将按列组织的数据转换成按行导出的Iterator
+ */
+public final class DataSources {
+
+    private DataSources() {
+    }
+
+    /**
+     * offset/limit分页数据源
+     * @param fetcher  分页数据获取函数
+     * @param pageSize 每页条数
+     * @return 数据迭代器
+     */
+    public static <T> Iterator<T> paged(PageFetcher<T> fetcher, int pageSize) {
+        checkPageSize(pageSize);
+        return new PagedIterator<T>(pageSize) {
+            private int offset;
+
+            @Override
+            List<T> nextPage() {
+                List<T> page = fetcher.fetch(offset, pageSize);
+                offset += page == null ? 0 : page.size();
+                return page;
+            }
+        };
+    }
+
+    /**
+     * keyset游标分页数据源
+     * @param fetcher      游标分页数据获取函数
+     * @param keyExtractor 获取数据key的函数
+     * @param pageSize     每页条数
+     * @return 数据迭代器
+     */
+    public static <T, K> Iterator<T> keyset(KeysetFetcher<T, K> fetcher, Function<? super T, ? extends K> keyExtractor, int pageSize) {
+        checkPageSize(pageSize);
+        return new PagedIterator<T>(pageSize) {
+            private K lastKey;
+
+            @Override
+            List<T> nextPage() {
+                List<T> page = fetcher.fetch(lastKey, pageSize);
+                if (CollectionUtils.isNotEmpty(page)) {
+                    lastKey = keyExtractor.apply(page.get(page.size() - 1));
+                }
+                return page;
+            }
+        };
+    }
+
+    /**
+     * 列式数据源
+     * </p>
+     * 每列的数据是一个数组或List，第i列与fields中的第i个字段对应，按行转换成Object[]导出，
+     * 适用于按列组织的查询结果，基本类型数组不需要事先装箱成对象数组
+     * @param columns 各列的数据，可以是对象数组、基本类型数组或List，长度必须一致
+     * @return 行数据迭代器
+     */
+    public static Iterator<Object[]> columns(Object... columns) {
+        if (columns == null || columns.length == 0) {
+            throw new ExcelException("列式数据至少要有一列");
+        }
+        List<IntFunction<Object>> readers = new ArrayList<>(columns.length);
+        int size = -1;
+        for (int c = 0; c < columns.length; c++) {
+            Object column = columns[c];
+            int length;
+            if (column instanceof List) {
+                // 非随机访问的List先转换成数组，避免按下标取值时反复遍历
+                Object[] values = ((List<?>) column).toArray();
+                readers.add(i -> values[i]);
+                length = values.length;
+            } else if (column != null && column.getClass().isArray()) {
+                readers.add(arrayReader(column));
+                length = Array.getLength(column);
+            } else {
+                throw new ExcelException(String.format("第%d列的数据必须是数组或List", c + 1));
+            }
+            if (size >= 0 && length != size) {
+                throw new ExcelException(String.format("第%d列的长度%d与第1列的长度%d不一致", c + 1, length, size));
+            }
+            size = length;
+        }
+        int rows = size;
+        return new Iterator<Object[]>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < rows;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object[] row = new Object[readers.size()];
+                for (int c = 0; c < row.length; c++) {
+                    row[c] = readers.get(c).apply(index);
+                }
+                index++;
+                return row;
+            }
+        };
+    }
+
+    /**
+     * 按数组类型创建取值函数，基本类型数组直接按下标取值后装箱
+     */
+    private static IntFunction<Object> arrayReader(Object array) {
+        if (array instanceof Object[]) {
+            Object[] values = (Object[]) array;
+            return i -> values[i];
+        } else if (array instanceof long[]) {
+            long[] values = (long[]) array;
+            return i -> values[i];
+        } else if (array instanceof int[]) {
+            int[] values = (int[]) array;
+            return i -> values[i];
+        } else if (array instanceof double[]) {
+            double[] values = (double[]) array;
+            return i -> values[i];
+        } else if (array instanceof float[]) {
+            float[] values = (float[]) array;
+            return i -> values[i];
+        } else if (array instanceof short[]) {
+            short[] values = (short[]) array;
+            return i -> values[i];
+        } else if (array instanceof byte[]) {
+            byte[] values = (byte[]) array;
+            return i -> values[i];
+        } else if (array instanceof boolean[]) {
+            boolean[] values = (boolean[]) array;
+            return i -> values[i];
+        }
+        char[] values = (char[]) array;
+        return i -> values[i];
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new ExcelException("分页大小必须大于0");
+        }
+    }
+
+    /**
+     * 分页迭代器，当前页遍历完后再获取下一页
+     */
+    private abstract static class PagedIterator<T> implements Iterator<T> {
+
+        private final int pageSize;
+        private Iterator<T> current = Collections.emptyIterator();
+        private boolean lastPage;
+
+        PagedIterator(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * 获取下一页数据
+         */
+        abstract List<T> nextPage();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (lastPage) {
+                    return false;
+                }
+                List<T> page = nextPage();
+                if (CollectionUtils.isEmpty(page)) {
+                    lastPage = true;
+                    return false;
+                }
+                // 不足一页说明已是最后一页，不再多查询一次
+                lastPage = page.size() < pageSize;
+                current = page.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
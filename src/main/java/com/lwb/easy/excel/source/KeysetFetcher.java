@@ -0,0 +1,20 @@
+package com.lwb.easy.excel.source;
+
+import java.util.List;
+
+/**
+ * 游标分页数据获取函数（keyset分页）
+ * </p>
+ * 以上一页最后一条数据的key作为下一页的查询条件，避免大偏移量分页查询变慢
+ */
+@FunctionalInterface
+public interface KeysetFetcher<T, K> {
+
+    /**
+     * 获取一页数据
+     * @param lastKey 上一页最后一条数据的key，第一页为null
+     * @param limit   每页条数
+     * @return 当前页数据
+     */
+    List<T> fetch(K lastKey, int limit);
+}
@@ -0,0 +1,20 @@
+package com.lwb.easy.excel.source;
+
+import java.util.List;
+
+/**
+ * 分页数据获取函数（offset/limit分页）
+ * </p>
+ * 导出时按页拉取数据，写完一页再拉取下一页，返回的数据条数小于limit时认为已是最后一页
+ */
+@FunctionalInterface
+public interface PageFetcher<T> {
+
+    /**
+     * 获取一页数据
+     * @param offset 偏移量，从0开始
+     * @param limit  每页条数
+     * @return 当前页数据
+     */
+    List<T> fetch(int offset, int limit);
+}
@@ -0,0 +1,118 @@
+package com.lwb.easy.excel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class CellWriterTest {
+
+    private XSSFWorkbook book;
+    private Row row;
+    private CellWriter writer;
+
+    @Before
+    public void setUp() {
+        book = new XSSFWorkbook();
+        row = book.createSheet().createRow(0);
+        writer = new CellWriter(book, 1);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        book.close();
+    }
+
+    @Test
+    public void dateIsWrittenAsExcelDate() {
+        Cell cell = write(date(LocalDateTime.of(2019, 8, 20, 13, 14, 15)), FieldFormat.DEFAULT);
+
+        assertEquals(CellType.NUMERIC, cell.getCellType());
+        assertEquals(LocalDateTime.of(2019, 8, 20, 13, 14, 15), toLocalDateTime(cell.getDateCellValue()));
+        assertEquals("yyyy-MM-dd HH:mm:ss", cell.getCellStyle().getDataFormatString());
+    }
+
+    @Test
+    public void sqlDateIsWrittenAsExcelDate() {
+        Cell cell = write(java.sql.Date.valueOf(LocalDate.of(2019, 8, 20)), FieldFormat.of("yyyy/MM/dd"));
+
+        assertEquals(CellType.NUMERIC, cell.getCellType());
+        assertEquals("yyyy/MM/dd", cell.getCellStyle().getDataFormatString());
+    }
+
+    @Test
+    public void dateBeforeExcelEpochIsWrittenAsText() {
+        Cell cell = write(date(LocalDateTime.of(1899, 12, 31, 8, 0)), FieldFormat.DEFAULT);
+
+        assertEquals(CellType.STRING, cell.getCellType());
+        assertEquals("1899-12-31T08:00", cell.getStringCellValue());
+    }
+
+    @Test
+    public void dateBeforeMarch1900IsWrittenAsText() {
+        // 1900日期系统把1900年当作闰年，1900-03-01之前的序列号有偏差
+        Cell date = write(date(LocalDateTime.of(1900, 2, 28, 0, 0)), FieldFormat.DEFAULT);
+        Cell localDate = write(LocalDate.of(1900, 2, 28), FieldFormat.DEFAULT);
+
+        assertEquals("1900-02-28T00:00", date.getStringCellValue());
+        assertEquals("1900-02-28T00:00", localDate.getStringCellValue());
+        assertEquals(CellType.NUMERIC, write(date(LocalDateTime.of(1900, 3, 1, 0, 0)), FieldFormat.DEFAULT).getCellType());
+    }
+
+    @Test
+    public void localTimeIsFractionOfDay() {
+        Cell cell = write(LocalTime.of(6, 0), FieldFormat.DEFAULT);
+
+        assertEquals(0.25, cell.getNumericCellValue(), 0);
+        assertEquals("HH:mm:ss", cell.getCellStyle().getDataFormatString());
+    }
+
+    @Test
+    public void numbersBeyondExcelPrecisionAreText() {
+        assertEquals(CellType.NUMERIC, write(999_999_999_999_999L, FieldFormat.DEFAULT).getCellType());
+        assertEquals("1234567890123456789", write(1234567890123456789L, FieldFormat.DEFAULT).getStringCellValue());
+        assertEquals("0.1234567890123456789",
+            write(new BigDecimal("0.1234567890123456789"), FieldFormat.DEFAULT).getStringCellValue());
+    }
+
+    @Test
+    public void numberUsesFieldPattern() {
+        Cell cell = write(12.5, FieldFormat.of("0.00"));
+
+        assertEquals(12.5, cell.getNumericCellValue(), 0);
+        assertEquals("0.00", cell.getCellStyle().getDataFormatString());
+    }
+
+    @Test
+    public void nullCreatesNoCell() {
+        writer.write(row, 0, null, FieldFormat.DEFAULT);
+
+        assertNull(row.getCell(0));
+    }
+
+    private Cell write(Object value, FieldFormat format) {
+        writer.write(row, 0, value, format);
+        return row.getCell(0);
+    }
+
+    private static Date date(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,148 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.enums.ExportFormat;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CsvWriterTest {
+
+    private static final String BOM = "\uFEFF";
+
+    @Test
+    public void writesBomHeaderAndCrlfLines() throws IOException {
+        ExcelConfig config = config(ExportFormat.CSV, singleHeader("姓名", "年龄"), "name", "age");
+
+        String csv = write(config, row("name", "张三", "age", 18), row("name", "李四", "age", 20));
+
+        assertEquals(BOM + "姓名,年龄\r\n张三,18\r\n李四,20\r\n", csv);
+    }
+
+    @Test
+    public void bomCanBeDisabled() throws IOException {
+        ExcelConfig config = config(ExportFormat.CSV, singleHeader("姓名"), "name");
+        config.setBom(false);
+
+        assertEquals("姓名\r\n张三\r\n", write(config, row("name", "张三")));
+    }
+
+    @Test
+    public void quotesValuesWithSeparatorQuoteOrLineBreak() throws IOException {
+        ExcelConfig config = config(ExportFormat.CSV, singleHeader("值"), "value");
+        config.setBom(false);
+
+        String csv = write(config,
+            row("value", "a,b"),
+            row("value", "say \"hi\""),
+            row("value", "line1\nline2"),
+            row("value", "line1\r\nline2"),
+            row("value", "a\tb"));
+
+        assertEquals("值\r\n"
+            + "\"a,b\"\r\n"
+            + "\"say \"\"hi\"\"\"\r\n"
+            + "\"line1\nline2\"\r\n"
+            + "\"line1\r\nline2\"\r\n"
+            + "a\tb\r\n", csv);
+    }
+
+    @Test
+    public void tsvQuotesTabsButNotCommas() throws IOException {
+        ExcelConfig config = config(ExportFormat.TSV, singleHeader("名称", "备注"), "name", "remark");
+        config.setBom(false);
+
+        String tsv = write(config, row("name", "a,b", "remark", "a\tb"));
+
+        assertEquals("名称\t备注\r\na,b\t\"a\tb\"\r\n", tsv);
+    }
+
+    @Test
+    public void nullValuesAndRowsAreEmpty() throws IOException {
+        ExcelConfig config = config(ExportFormat.CSV, singleHeader("姓名", "年龄"), "name", "age");
+        config.setBom(false);
+
+        String csv = write(config, row("name", null, "age", 18), null, row("name", "", "age", null));
+
+        assertEquals("姓名,年龄\r\n,18\r\n\r\n,\r\n", csv);
+    }
+
+    @Test
+    public void multiRowHeadersAreFlattened() throws IOException {
+        List<List<ExcelConfig.Header>> headers = Arrays.asList(
+            Arrays.asList(header("名字", "0,1,0,0"), header("信息", "0,0,1,2")),
+            Arrays.asList(header("", null), header("角色", null), header("年龄", null)));
+        ExcelConfig config = config(ExportFormat.CSV, headers, "name", "role", "age");
+        config.setBom(false);
+
+        String csv = write(config, row("name", "张三", "role", "管理员", "age", 18));
+
+        assertEquals("名字,信息-角色,信息-年龄\r\n张三,管理员,18\r\n", csv);
+    }
+
+    @Test
+    public void headerNamesAreQuotedToo() throws IOException {
+        ExcelConfig config = config(ExportFormat.CSV, singleHeader("a,b", "c\"d"), "a", "c");
+        config.setBom(false);
+
+        assertEquals("\"a,b\",\"c\"\"d\"\r\n", write(config));
+    }
+
+    @Test
+    public void datesUseFieldFormat() throws IOException {
+        ExcelConfig config = config(ExportFormat.CSV, singleHeader("姓名", "年龄", "生日"), "name", "age", "birthday");
+        config.setBom(false);
+
+        String csv = write(config, new TestUser("张三", 18, LocalDate.of(2000, 1, 2)));
+
+        assertEquals("姓名,年龄,生日\r\n张三,18,2000-01-02\r\n", csv);
+    }
+
+    private static String write(ExcelConfig config, Object... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CsvWriter(config).write(Arrays.asList(rows).iterator(), out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static ExcelConfig config(ExportFormat format, List<List<ExcelConfig.Header>> headers, String... fields) {
+        ExcelConfig config = new ExcelConfig();
+        config.setFileName("csv");
+        config.setFormat(format);
+        config.setHeaders(headers);
+        config.setFields(Arrays.asList(fields));
+        config.validate();
+        return config;
+    }
+
+    private static List<List<ExcelConfig.Header>> singleHeader(String... names) {
+        ExcelConfig.Header[] headers = new ExcelConfig.Header[names.length];
+        for (int i = 0; i < names.length; i++) {
+            headers[i] = header(names[i], null);
+        }
+        return Collections.singletonList(Arrays.asList(headers));
+    }
+
+    private static ExcelConfig.Header header(String name, String mergeIndex) {
+        ExcelConfig.Header header = new ExcelConfig.Header();
+        header.setName(name);
+        header.setMergeIndex(mergeIndex);
+        return header;
+    }
+
+    private static Map<String, Object> row(Object... keyValues) {
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,191 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.enums.ExportFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.lwb.easy.excel.constant.Headers.*;
+import static org.junit.Assert.*;
+
+public class DownloadUtilTest {
+
+    private static final long LENGTH = 1000;
+
+    private File file;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("download", ".xlsx");
+        content = bytes(LENGTH);
+        Files.write(file.toPath(), content);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void parseRangeWithoutHeaderReturnsWholeFile() {
+        assertArrayEquals(new long[]{0, 999}, DownloadUtil.parseRange(null, LENGTH));
+        assertArrayEquals(new long[]{0, 999}, DownloadUtil.parseRange("", LENGTH));
+    }
+
+    @Test
+    public void parseRangeClosedRange() {
+        assertArrayEquals(new long[]{0, 99}, DownloadUtil.parseRange("bytes=0-99", LENGTH));
+        assertArrayEquals(new long[]{100, 100}, DownloadUtil.parseRange("bytes=100-100", LENGTH));
+        assertArrayEquals(new long[]{100, 199}, DownloadUtil.parseRange("bytes= 100 - 199 ", LENGTH));
+    }
+
+    @Test
+    public void parseRangeOpenEnd() {
+        assertArrayEquals(new long[]{100, 999}, DownloadUtil.parseRange("bytes=100-", LENGTH));
+        assertArrayEquals(new long[]{999, 999}, DownloadUtil.parseRange("bytes=999-", LENGTH));
+    }
+
+    @Test
+    public void parseRangeSuffix() {
+        assertArrayEquals(new long[]{900, 999}, DownloadUtil.parseRange("bytes=-100", LENGTH));
+        // 后缀长度超过文件长度时返回整个文件
+        assertArrayEquals(new long[]{0, 999}, DownloadUtil.parseRange("bytes=-5000", LENGTH));
+        assertNull(DownloadUtil.parseRange("bytes=-0", LENGTH));
+    }
+
+    @Test
+    public void parseRangeEndPastEofIsClamped() {
+        assertArrayEquals(new long[]{900, 999}, DownloadUtil.parseRange("bytes=900-5000", LENGTH));
+    }
+
+    @Test
+    public void parseRangeStartPastEofIsUnsatisfiable() {
+        assertNull(DownloadUtil.parseRange("bytes=1000-", LENGTH));
+        assertNull(DownloadUtil.parseRange("bytes=1000-1100", LENGTH));
+    }
+
+    @Test
+    public void parseRangeInvalidSyntaxIsIgnored() {
+        long[] all = {0, 999};
+        assertArrayEquals(all, DownloadUtil.parseRange("bytes=500-100", LENGTH));
+        assertArrayEquals(all, DownloadUtil.parseRange("bytes=abc-", LENGTH));
+        assertArrayEquals(all, DownloadUtil.parseRange("bytes=--5", LENGTH));
+        assertArrayEquals(all, DownloadUtil.parseRange("bytes=-", LENGTH));
+        assertArrayEquals(all, DownloadUtil.parseRange("bytes=5", LENGTH));
+        assertArrayEquals(all, DownloadUtil.parseRange("items=0-99", LENGTH));
+    }
+
+    @Test
+    public void parseRangeMultipleRangesReturnWholeFile() {
+        assertArrayEquals(new long[]{0, 999}, DownloadUtil.parseRange("bytes=0-99,200-299", LENGTH));
+    }
+
+    @Test
+    public void parseRangeEmptyFile() {
+        assertArrayEquals(new long[]{0, -1}, DownloadUtil.parseRange(null, 0));
+        assertNull(DownloadUtil.parseRange("bytes=0-", 0));
+        assertNull(DownloadUtil.parseRange("bytes=-10", 0));
+    }
+
+    @Test
+    public void downloadWholeFile() throws IOException {
+        MockServlets.MockResponse response = download(Collections.emptyMap());
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(LENGTH, response.getContentLength());
+        assertEquals("bytes", response.getHeader(ACCEPT_RANGES));
+        assertNull(response.getHeader(CONTENT_RANGE));
+        assertArrayEquals(content, response.getBody());
+    }
+
+    @Test
+    public void downloadPartialContent() throws IOException {
+        MockServlets.MockResponse response = MockServlets.response();
+        boolean completed = DownloadUtil.download(MockServlets.request(Collections.singletonMap(RANGE, "bytes=100-199")),
+            response.get(), "download", ExportFormat.XLSX, file);
+
+        assertFalse(completed);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader(CONTENT_RANGE));
+        assertEquals(100, response.getContentLength());
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getBody());
+    }
+
+    @Test
+    public void downloadLastPartCompletesTransfer() throws IOException {
+        MockServlets.MockResponse response = MockServlets.response();
+        boolean completed = DownloadUtil.download(MockServlets.request(Collections.singletonMap(RANGE, "bytes=900-")),
+            response.get(), "download", ExportFormat.XLSX, file);
+
+        assertTrue(completed);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 900-999/1000", response.getHeader(CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 900, 1000), response.getBody());
+    }
+
+    @Test
+    public void downloadUnsatisfiableRange() throws IOException {
+        MockServlets.MockResponse response = MockServlets.response();
+        boolean completed = DownloadUtil.download(MockServlets.request(Collections.singletonMap(RANGE, "bytes=1000-")),
+            response.get(), "download", ExportFormat.XLSX, file);
+
+        assertFalse(completed);
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader(CONTENT_RANGE));
+        assertEquals(0, response.getBody().length);
+    }
+
+    @Test
+    public void downloadIgnoresInvalidRange() throws IOException {
+        MockServlets.MockResponse response = download(Collections.singletonMap(RANGE, "bytes=500-100"));
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader(CONTENT_RANGE));
+        assertArrayEquals(content, response.getBody());
+    }
+
+    @Test
+    public void downloadFileLargerThanBuffer() throws IOException {
+        content = bytes(200_000);
+        Files.write(file.toPath(), content);
+
+        MockServlets.MockResponse response = download(Collections.emptyMap());
+
+        assertEquals(content.length, response.getContentLength());
+        assertArrayEquals(content, response.getBody());
+    }
+
+    @Test
+    public void downloadEmptyFile() throws IOException {
+        Files.write(file.toPath(), new byte[0]);
+
+        MockServlets.MockResponse response = download(Collections.emptyMap());
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(0, response.getContentLength());
+        assertEquals(0, response.getBody().length);
+    }
+
+    private MockServlets.MockResponse download(Map<String, String> headers) throws IOException {
+        MockServlets.MockResponse response = MockServlets.response();
+        assertTrue(DownloadUtil.download(MockServlets.request(headers), response.get(), "download", ExportFormat.XLSX, file));
+        return response;
+    }
+
+    private static byte[] bytes(long length) {
+        byte[] bytes = new byte[(int) length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 251);
+        }
+        return bytes;
+    }
+}
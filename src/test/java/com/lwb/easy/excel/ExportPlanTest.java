@@ -0,0 +1,82 @@
+package com.lwb.easy.excel;
+
+import com.lwb.easy.excel.enums.ExcelEngine;
+import com.lwb.easy.excel.enums.ExportFormat;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ExportPlanTest {
+
+    private static final List<TestUser> USERS = Arrays.asList(new TestUser("张三", 18, null), new TestUser("李四", 20, null));
+
+    @Test
+    public void mergeMayExtendIntoDataRows() {
+        ExportPlan plan = ExportPlan.compile(config(ExportFormat.XLSX, ExcelEngine.POI, "0,2,0,0"));
+
+        assertEquals(Collections.singletonList(new CellRangeAddress(0, 2, 0, 0)), plan.getMergedRegions());
+        assertEquals(1, plan.getHeaderRows());
+    }
+
+    @Test
+    public void mergeIntoDataRowsIsWrittenByBothEngines() throws IOException {
+        for (ExcelEngine engine : ExcelEngine.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ExcelUtil.write(USERS, config(ExportFormat.XLSX, engine, "0,2,0,0"), out);
+
+            try (XSSFWorkbook book = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+                XSSFSheet sheet = book.getSheetAt(0);
+                assertEquals(engine.name(), Collections.singletonList(new CellRangeAddress(0, 2, 0, 0)), sheet.getMergedRegions());
+                assertEquals("李四", sheet.getRow(2).getCell(0).getStringCellValue());
+            }
+        }
+    }
+
+    @Test
+    public void mergeIntoDataRowsOnlyFlattensHeaderInCsv() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelConfig config = config(ExportFormat.CSV, ExcelEngine.POI, "0,2,0,1");
+        config.setBom(false);
+
+        ExcelUtil.write(USERS, config, out);
+
+        assertEquals("姓名,姓名\r\n张三,18\r\n李四,20\r\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void invalidMergesFailOnCompile() {
+        for (String mergeIndex : Arrays.asList("0,1,0", "0,1,a,0", "0,-1,0,0", "1,0,0,0", "0,0,0,0", "0,1048576,0,0")) {
+            try {
+                ExportPlan.compile(config(ExportFormat.XLSX, ExcelEngine.POI, mergeIndex));
+                fail(mergeIndex + "应当校验失败");
+            } catch (ExcelException e) {
+                // 合并规则无效
+            }
+        }
+    }
+
+    private static ExcelConfig config(ExportFormat format, ExcelEngine engine, String mergeIndex) {
+        ExcelConfig.Header name = new ExcelConfig.Header();
+        name.setName("姓名");
+        name.setMergeIndex(mergeIndex);
+        ExcelConfig config = new ExcelConfig();
+        config.setFileName("merge");
+        config.setFormat(format);
+        config.setEngine(engine);
+        config.setHeaders(Collections.singletonList(Collections.singletonList(name)));
+        config.setFields(Arrays.asList("name", "age"));
+        return config;
+    }
+}
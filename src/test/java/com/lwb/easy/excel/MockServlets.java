@@ -0,0 +1,123 @@
+package com.lwb.easy.excel;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.lwb.easy.excel.constant.Headers.USER_AGENT;
+
+/**
+ * 测试用的请求、响应，响应的状态码、响应头和内容记录在MockResponse中
+ */
+public final class MockServlets {
+
+    private MockServlets() {
+    }
+
+    /**
+     * 创建请求
+     * @param headers 请求头，User-Agent默认为普通浏览器
+     */
+    public static HttpServletRequest request(Map<String, String> headers) {
+        Map<String, String> all = new HashMap<>(headers);
+        all.putIfAbsent(USER_AGENT, "Mozilla/5.0");
+        return (HttpServletRequest) Proxy.newProxyInstance(
+            MockServlets.class.getClassLoader(),
+            new Class<?>[]{HttpServletRequest.class},
+            (proxy, method, args) -> "getHeader".equals(method.getName()) ? all.get(args[0]) : null);
+    }
+
+    public static MockResponse response() {
+        return new MockResponse();
+    }
+
+    /**
+     * 记录写入内容的响应
+     */
+    public static final class MockResponse {
+
+        private final Map<String, String> headers = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private int status = HttpServletResponse.SC_OK;
+        private long contentLength = -1;
+        private final HttpServletResponse response;
+
+        private MockResponse() {
+            ServletOutputStream out = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+            };
+            this.response = (HttpServletResponse) Proxy.newProxyInstance(
+                MockServlets.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setHeader":
+                        case "addHeader":
+                            headers.put((String) args[0], (String) args[1]);
+                            return null;
+                        case "setContentType":
+                            headers.put("Content-Type", (String) args[0]);
+                            return null;
+                        case "setStatus":
+                            status = (Integer) args[0];
+                            return null;
+                        case "setContentLength":
+                            contentLength = (Integer) args[0];
+                            return null;
+                        case "setContentLengthLong":
+                            contentLength = (Long) args[0];
+                            return null;
+                        case "getOutputStream":
+                            return out;
+                        case "isCommitted":
+                        case "containsHeader":
+                            return false;
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        public HttpServletResponse get() {
+            return response;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        public byte[] getBody() {
+            return body.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.lwb.easy.excel;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+
+/**
+ * 测试用的导出、导入数据，对应config/user.yml
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TestUser {
+
+    String name;
+    Integer age;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    LocalDate birthday;
+}
@@ -0,0 +1,156 @@
+package com.lwb.easy.excel.job;
+
+import com.lwb.easy.excel.ExcelConfig;
+import com.lwb.easy.excel.ExcelConfigRegistry;
+import com.lwb.easy.excel.ExcelSettings;
+import com.lwb.easy.excel.ExcelUtil;
+import com.lwb.easy.excel.MockServlets;
+import com.lwb.easy.excel.TestUser;
+import com.lwb.easy.excel.enums.ExportStatus;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static com.lwb.easy.excel.constant.Headers.RANGE;
+import static org.junit.Assert.*;
+
+public class ExportJobManagerTest {
+
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    private Path previousTempDir;
+    private Path tempDir;
+    private ExportJobManager manager;
+
+    @Before
+    public void setUp() throws IOException {
+        previousTempDir = ExcelSettings.getTempDir();
+        tempDir = Files.createTempDirectory("export-job");
+        ExcelSettings.setTempDir(tempDir);
+        manager = new ExportJobManager(1, 10);
+    }
+
+    @After
+    public void tearDown() {
+        manager.shutdown();
+        ExcelSettings.setTempDir(previousTempDir);
+        File[] files = tempDir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        tempDir.toFile().delete();
+    }
+
+    @Test
+    public void partialDownloadKeepsJobAndFile() throws InterruptedException {
+        ExportJob job = awaitDone(submit());
+        File file = new File(ExcelUtil.getFileFullPath(job.getFileName()));
+
+        MockServlets.MockResponse response = download(job, Collections.singletonMap(RANGE, "bytes=0-99"));
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals(100, response.getBody().length);
+        assertSame(job, manager.getJob(job.getId()));
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void completeDownloadRemovesJobAndFile() throws InterruptedException {
+        ExportJob job = awaitDone(submit());
+        File file = new File(ExcelUtil.getFileFullPath(job.getFileName()));
+        long length = file.length();
+
+        download(job, Collections.singletonMap(RANGE, "bytes=0-99"));
+        MockServlets.MockResponse response = download(job, Collections.singletonMap(RANGE, "bytes=100-"));
+
+        assertEquals(length - 100, response.getBody().length);
+        try {
+            manager.getJob(job.getId());
+            fail("下载完成后任务应被移除");
+        } catch (ExcelException e) {
+            // 任务已移除
+        }
+        // 文件异步删除
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (file.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void downloadUnfinishedJobFails() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        ExcelConfig config = ExcelConfigRegistry.get(ExportJobManagerTest.class, "/config/user.yml");
+        String jobId = manager.submit(config, () -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyIterator();
+        });
+        try {
+            manager.download(jobId, MockServlets.request(Collections.emptyMap()), MockServlets.response().get());
+            fail("未完成的任务不能下载");
+        } catch (ExcelException e) {
+            assertFalse(manager.getJob(jobId).isFinished());
+        } finally {
+            latch.countDown();
+        }
+        awaitDone(jobId);
+    }
+
+    @Test
+    public void errorFailsJob() throws InterruptedException {
+        ExcelConfig config = ExcelConfigRegistry.get(ExportJobManagerTest.class, "/config/user.yml");
+        String jobId = manager.submit(config, () -> {
+            throw new AssertionError("simulated");
+        });
+
+        ExportJob job = await(jobId);
+
+        assertEquals(ExportStatus.FAILED, job.getStatus());
+        assertEquals("simulated", job.getErrorMessage());
+    }
+
+    private String submit() {
+        ExcelConfig config = ExcelConfigRegistry.get(ExportJobManagerTest.class, "/config/user.yml");
+        return manager.submit(config, () -> Collections.nCopies(50, new TestUser("张三", 18, LocalDate.of(2000, 1, 1))).iterator());
+    }
+
+    private ExportJob awaitDone(String jobId) throws InterruptedException {
+        ExportJob job = await(jobId);
+        assertEquals(job.getErrorMessage(), ExportStatus.DONE, job.getStatus());
+        return job;
+    }
+
+    private ExportJob await(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        ExportJob job = manager.getJob(jobId);
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(job.isFinished());
+        return job;
+    }
+
+    private MockServlets.MockResponse download(ExportJob job, Map<String, String> headers) {
+        MockServlets.MockResponse response = MockServlets.response();
+        manager.download(job.getId(), MockServlets.request(headers), response.get());
+        return response;
+    }
+}
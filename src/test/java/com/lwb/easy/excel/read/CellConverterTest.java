@@ -0,0 +1,151 @@
+package com.lwb.easy.excel.read;
+
+import com.lwb.easy.excel.enums.ExportFormat;
+import com.lwb.easy.excel.exception.ExcelException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class CellConverterTest {
+
+    @Test
+    public void blankTextIsNull() {
+        assertNull(CellConverter.convert(null, Integer.class, null));
+        assertNull(CellConverter.convert("", Integer.class, null));
+        assertNull(CellConverter.convert("  ", LocalDate.class, null));
+    }
+
+    @Test
+    public void stringsAreNotTrimmed() {
+        assertEquals(" a ", CellConverter.convert(" a ", String.class, null));
+        assertEquals("", CellConverter.convert("", String.class, null));
+    }
+
+    @Test
+    public void integralNumbers() {
+        assertEquals(12, CellConverter.convert("12", Integer.class, null));
+        assertEquals(12, CellConverter.convert(" 12.0 ", int.class, null));
+        assertEquals(12345678901L, CellConverter.convert("12345678901", Long.class, null));
+        assertEquals((short) 7, CellConverter.convert("7", Short.class, null));
+        assertEquals((byte) -8, CellConverter.convert("-8", byte.class, null));
+        assertEquals(new BigInteger("123456789012345678901234567890"),
+            CellConverter.convert("123456789012345678901234567890", BigInteger.class, null));
+    }
+
+    @Test
+    public void decimalNumbers() {
+        assertEquals(1.5D, CellConverter.convert("1.5", Double.class, null));
+        assertEquals(1.5F, CellConverter.convert("1.5", float.class, null));
+        assertEquals(new BigDecimal("0.1000000000000000055511151231257827"),
+            CellConverter.convert("0.1000000000000000055511151231257827", BigDecimal.class, null));
+    }
+
+    @Test
+    public void integerOverflowFails() {
+        assertConvertFails("2147483648", Integer.class);
+        assertConvertFails("9223372036854775808", Long.class);
+        assertConvertFails("32768", Short.class);
+        assertConvertFails("128", Byte.class);
+    }
+
+    @Test
+    public void fractionToIntegralTypeFails() {
+        assertConvertFails("12.5", Integer.class);
+        assertConvertFails("1.5", Long.class);
+        assertConvertFails("1.5", BigInteger.class);
+    }
+
+    @Test
+    public void notANumberFails() {
+        assertConvertFails("abc", Integer.class);
+        assertConvertFails("abc", Double.class);
+    }
+
+    @Test
+    public void booleans() {
+        assertEquals(Boolean.TRUE, CellConverter.convert("TRUE", Boolean.class, null));
+        assertEquals(Boolean.TRUE, CellConverter.convert("1", boolean.class, null));
+        assertEquals(Boolean.FALSE, CellConverter.convert("false", Boolean.class, null));
+        assertEquals(Boolean.FALSE, CellConverter.convert("0", boolean.class, null));
+        assertConvertFails("yes", Boolean.class);
+    }
+
+    @Test
+    public void enums() {
+        assertEquals(ExportFormat.CSV, CellConverter.convert("CSV", ExportFormat.class, null));
+        assertConvertFails("csv", ExportFormat.class);
+    }
+
+    @Test(expected = ExcelException.class)
+    public void unsupportedTypeFails() {
+        CellConverter.convert("1", StringBuilder.class, null);
+    }
+
+    @Test
+    public void dateUsesFieldPatternFirst() {
+        assertEquals(LocalDate.of(2000, 1, 2), CellConverter.convert("02/01/2000", LocalDate.class, "dd/MM/yyyy"));
+        // 01/02/2000按字段格式解析，不会被当成其他格式
+        assertEquals(LocalDate.of(2000, 2, 1), CellConverter.convert("01/02/2000", LocalDate.class, "dd/MM/yyyy"));
+    }
+
+    @Test
+    public void dateFallsBackToDateTimeThenDate() {
+        // 字段格式不匹配时依次按yyyy-MM-dd HH:mm:ss、yyyy-MM-dd解析
+        assertEquals(LocalDateTime.of(2000, 1, 2, 3, 4, 5),
+            CellConverter.convert("2000-01-02 03:04:05", LocalDateTime.class, "dd/MM/yyyy"));
+        assertEquals(LocalDateTime.of(2000, 1, 2, 0, 0),
+            CellConverter.convert("2000-01-02", LocalDateTime.class, "dd/MM/yyyy"));
+        assertEquals(LocalDate.of(2000, 1, 2), CellConverter.convert("2000-01-02 03:04:05", LocalDate.class, null));
+        assertEquals(LocalTime.of(3, 4, 5), CellConverter.convert("2000-01-02 03:04:05", LocalTime.class, null));
+    }
+
+    @Test
+    public void timeOnlyPattern() {
+        assertEquals(LocalTime.of(8, 30), CellConverter.convert("08:30", LocalTime.class, "HH:mm"));
+    }
+
+    @Test
+    public void dateFallsBackToExcelSerial() {
+        // 1900日期系统：36526为2000-01-01
+        assertEquals(LocalDate.of(2000, 1, 2), CellConverter.convert("36527", LocalDate.class, null));
+        assertEquals(LocalDateTime.of(2000, 1, 2, 12, 0), CellConverter.convert("36527.5", LocalDateTime.class, null));
+        assertEquals(LocalTime.of(6, 0), CellConverter.convert("0.25", LocalTime.class, null));
+        assertEquals(LocalDate.of(1900, 3, 1), CellConverter.convert("61", LocalDate.class, "yyyy/MM/dd"));
+    }
+
+    @Test
+    public void javaUtilDateUsesSystemZone() {
+        Date expected = Date.from(LocalDateTime.of(2000, 1, 2, 3, 4, 5).atZone(ZoneId.systemDefault()).toInstant());
+        assertEquals(expected, CellConverter.convert("2000-01-02 03:04:05", Date.class, null));
+    }
+
+    @Test
+    public void unparseableDateFails() {
+        assertConvertFails("not a date", LocalDate.class);
+        assertConvertFails("2000-13-45", LocalDate.class);
+    }
+
+    @Test
+    public void excelSerialKeepsMilliseconds() {
+        LocalDateTime dateTime = LocalDateTime.of(2019, 8, 20, 13, 14, 15, 123_000_000);
+        double serial = 43697 + (13 * 3600 + 14 * 60 + 15.123) / 86400;
+        assertEquals(dateTime, CellConverter.fromExcelDate(serial));
+    }
+
+    private static void assertConvertFails(String text, Class<?> type) {
+        try {
+            CellConverter.convert(text, type, null);
+            fail(String.format("%s转换成%s应当失败", text, type.getSimpleName()));
+        } catch (ExcelException e) {
+            // 转换失败
+        }
+    }
+}
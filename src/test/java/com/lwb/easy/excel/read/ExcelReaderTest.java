@@ -0,0 +1,209 @@
+package com.lwb.easy.excel.read;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.lwb.easy.excel.ExcelConfig;
+import com.lwb.easy.excel.ExcelConfigRegistry;
+import com.lwb.easy.excel.ExcelUtil;
+import com.lwb.easy.excel.TestUser;
+import com.lwb.easy.excel.enums.ExcelEngine;
+import com.lwb.easy.excel.exception.ExcelException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 导入ExcelUtil导出的文件，导入结果应与导出的数据一致
+ */
+public class ExcelReaderTest {
+
+    private static final List<TestUser> USERS = Arrays.asList(
+        new TestUser("张三", 18, LocalDate.of(2000, 1, 2)),
+        new TestUser("李\"四\",\n", null, LocalDate.of(1990, 12, 31)),
+        new TestUser(null, 0, null),
+        new TestUser("王五", -1, LocalDate.of(2019, 8, 20)),
+        new TestUser("赵六", Integer.MAX_VALUE, LocalDate.of(1900, 3, 1)),
+        new TestUser("钱七", 30, LocalDate.of(2020, 2, 29)),
+        new TestUser("孙八", 40, LocalDate.of(2038, 1, 19)),
+        new TestUser("周九", 50, LocalDate.of(1970, 1, 1)));
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("round-trip", ".xlsx");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void roundTripPoiEngine() throws IOException {
+        ExcelConfig config = userConfig("/config/user.yml", ExcelEngine.POI, null);
+
+        write(USERS, config);
+
+        assertEquals(USERS, read(TestUser.class, config));
+    }
+
+    @Test
+    public void roundTripNativeEngine() throws IOException {
+        ExcelConfig config = userConfig("/config/user.yml", ExcelEngine.NATIVE, null);
+
+        write(USERS, config);
+
+        assertEquals(USERS, read(TestUser.class, config));
+    }
+
+    @Test
+    public void roundTripAcrossSheetsSkipsRepeatedHeaders() throws IOException {
+        for (ExcelEngine engine : ExcelEngine.values()) {
+            ExcelConfig config = userConfig("/config/user.yml", engine, 3);
+
+            write(USERS, config);
+
+            assertEquals(engine.name(), USERS, read(TestUser.class, config));
+        }
+    }
+
+    @Test
+    public void roundTripMultiRowHeader() throws IOException {
+        ExcelConfig config = userConfig("/config/user-merged.yml", ExcelEngine.POI, 5);
+
+        write(USERS, config);
+
+        assertEquals(USERS, read(TestUser.class, config));
+    }
+
+    @Test
+    public void roundTripNativeTypes() throws IOException {
+        ExcelConfig config = ExcelConfigRegistry.get(ExcelReaderTest.class, "/config/types.yml");
+        Date updateTime = new Date(1566278055000L);
+        List<Types> rows = Arrays.asList(
+            new Types(1L, new BigDecimal("12.34"), true, LocalDateTime.of(2019, 8, 20, 13, 14, 15), updateTime),
+            // 超过15位有效数字的数字按文本写入，导入时不丢失精度
+            new Types(1234567890123456789L, new BigDecimal("0.1234567890123456789"), false, null, null));
+
+        write(rows, config);
+
+        assertEquals(rows, read(Types.class, config));
+    }
+
+    @Test
+    public void readAsMap() throws IOException {
+        ExcelConfig config = userConfig("/config/user.yml", ExcelEngine.POI, null);
+        write(USERS.subList(0, 1), config);
+
+        List<Map> rows = read(Map.class, config);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("name", "张三");
+        expected.put("age", "18");
+        expected.put("birthday", "2000-01-02 00:00:00");
+        assertEquals(Collections.singletonList(expected), rows);
+    }
+
+    @Test
+    public void conversionErrorReportsSheetRowAndColumn() throws IOException {
+        ExcelConfig config = userConfig("/config/user.yml", ExcelEngine.POI, null);
+        write(Arrays.asList(row("张三", "18"), row("李四", "abc")), config);
+
+        try {
+            read(TestUser.class, config);
+            fail("年龄不是数字时应当导入失败");
+        } catch (ExcelException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("第1个sheet第3行第2列（age）"));
+        }
+    }
+
+    @Test
+    public void parallelReadCollectsRowErrors() throws IOException {
+        ExcelConfig config = userConfig("/config/user.yml", ExcelEngine.POI, 2);
+        write(Arrays.asList(row("张三", "18"), row("李四", "abc"), row("王五", "20"), row("赵六", "1.5")), config);
+        ParallelExcelReader reader = new ParallelExcelReader(2);
+        List<TestUser> users = new ArrayList<>();
+        ImportOptions options = new ImportOptions();
+        options.setBatchSize(1);
+        options.setOrdered(true);
+        try {
+            ImportResult result = reader.read(file, TestUser.class, config, options, users::addAll);
+
+            assertEquals(4, result.getTotalRows());
+            assertEquals(2, result.getSuccessRows());
+            assertEquals(2, result.getErrors().size());
+            assertEquals(0, result.getErrors().get(0).getSheetIndex());
+            assertEquals(3, result.getErrors().get(0).getRowNum());
+            assertEquals(1, result.getErrors().get(1).getSheetIndex());
+            assertEquals(3, result.getErrors().get(1).getRowNum());
+            assertEquals(Arrays.asList("张三", "王五"), Arrays.asList(users.get(0).getName(), users.get(1).getName()));
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    private static ExcelConfig userConfig(String path, ExcelEngine engine, Integer maxRowsPerSheet) {
+        ExcelConfig base = ExcelConfigRegistry.get(ExcelReaderTest.class, path);
+        ExcelConfig config = new ExcelConfig();
+        config.setFileName(base.getFileName());
+        config.setHeaders(base.getHeaders());
+        config.setFields(base.getFields());
+        config.setEngine(engine);
+        config.setMaxRowsPerSheet(maxRowsPerSheet);
+        return config;
+    }
+
+    private static Map<String, Object> row(String name, String age) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("name", name);
+        row.put("age", age);
+        return row;
+    }
+
+    private void write(List<?> rows, ExcelConfig config) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            ExcelUtil.write(rows, config, out);
+        }
+    }
+
+    private <T> List<T> read(Class<T> type, ExcelConfig config) {
+        List<T> rows = new ArrayList<>();
+        ExcelReader.read(file, type, config, 3, rows::addAll);
+        return rows;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Types {
+        Long id;
+        BigDecimal amount;
+        Boolean enabled;
+        @JsonFormat(pattern = "yyyy/MM/dd HH:mm:ss")
+        LocalDateTime createTime;
+        Date updateTime;
+    }
+}
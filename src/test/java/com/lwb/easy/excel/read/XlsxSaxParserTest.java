@@ -0,0 +1,135 @@
+package com.lwb.easy.excel.read;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class XlsxSaxParserTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("import", ".xlsx");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void sparseCellsKeepTheirColumns() throws IOException {
+        try (XSSFWorkbook book = new XSSFWorkbook()) {
+            Sheet sheet = book.createSheet();
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue("a");
+            row.createCell(2).setCellValue("c");
+            // 超出读取列数的单元格忽略
+            row.createCell(5).setCellValue("f");
+            Row gap = sheet.createRow(1);
+            gap.createCell(1).setCellValue("b");
+            save(book);
+        }
+
+        List<ExcelRow> rows = parse(3, 0);
+
+        assertEquals(2, rows.size());
+        assertArrayEquals(new String[]{"a", null, "c"}, rows.get(0).getValues());
+        assertArrayEquals(new String[]{null, "b", null}, rows.get(1).getValues());
+    }
+
+    @Test
+    public void headerRowsAreSkippedOnEverySheet() throws IOException {
+        try (XSSFWorkbook book = new XSSFWorkbook()) {
+            for (int s = 0; s < 2; s++) {
+                Sheet sheet = book.createSheet();
+                sheet.createRow(0).createCell(0).setCellValue("表头1");
+                sheet.createRow(1).createCell(0).setCellValue("表头2");
+                sheet.createRow(2).createCell(0).setCellValue("s" + s + "r1");
+                sheet.createRow(3).createCell(0).setCellValue("s" + s + "r2");
+            }
+            save(book);
+        }
+
+        List<ExcelRow> rows = parse(1, 2);
+
+        assertEquals(4, rows.size());
+        assertRow(rows.get(0), 0, 3, "s0r1");
+        assertRow(rows.get(1), 0, 4, "s0r2");
+        assertRow(rows.get(2), 1, 3, "s1r1");
+        assertRow(rows.get(3), 1, 4, "s1r2");
+    }
+
+    @Test
+    public void emptyRowsAreSkipped() throws IOException {
+        try (XSSFWorkbook book = new XSSFWorkbook()) {
+            Sheet sheet = book.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("a");
+            sheet.createRow(1).createCell(0).setCellValue("");
+            // 第3行没有单元格
+            sheet.createRow(3).createCell(0).setCellValue("d");
+            save(book);
+        }
+
+        List<ExcelRow> rows = parse(1, 0);
+
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), 0, 1, "a");
+        assertRow(rows.get(1), 0, 4, "d");
+    }
+
+    @Test
+    public void numbersAndDatesKeepRawValues() throws IOException {
+        try (XSSFWorkbook book = new XSSFWorkbook()) {
+            CellStyle percent = book.createCellStyle();
+            percent.setDataFormat(book.createDataFormat().getFormat("0%"));
+            CellStyle date = book.createCellStyle();
+            date.setDataFormat(book.createDataFormat().getFormat("yyyy/m/d"));
+            Row row = book.createSheet().createRow(0);
+            row.createCell(0).setCellValue(12.0);
+            row.getCell(0).setCellStyle(percent);
+            row.createCell(1).setCellValue(1234567.891);
+            // 2019-08-20 13:14:15的excel日期序列号
+            row.createCell(2).setCellValue(43697 + (13 * 3600 + 14 * 60 + 15) / 86400D);
+            row.getCell(2).setCellStyle(date);
+            row.createCell(3).setCellValue(true);
+            save(book);
+        }
+
+        List<ExcelRow> rows = parse(4, 0);
+
+        assertArrayEquals(new String[]{"12", "1234567.891", "2019-08-20 13:14:15", "TRUE"}, rows.get(0).getValues());
+    }
+
+    private void save(XSSFWorkbook book) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            book.write(out);
+        }
+    }
+
+    private List<ExcelRow> parse(int columns, int headerRows) {
+        List<ExcelRow> rows = new ArrayList<>();
+        XlsxSaxParser.parse(file, columns, headerRows, rows::add);
+        return rows;
+    }
+
+    private static void assertRow(ExcelRow row, int sheetIndex, int rowNum, String value) {
+        assertEquals(sheetIndex, row.getSheetIndex());
+        assertEquals(rowNum, row.getRowNum());
+        assertEquals(value, row.getValues()[0]);
+    }
+}